@@ -0,0 +1,281 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.*;
+import jsongooey.backend.lexer.TokenBuffer;
+import jsongooey.backend.lexer.TokenType;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * the Optional based Parser as it was before the single dispatch rewrite, kept as the baseline of ParserBenchmark
+ */
+class OptionalParser {
+    private final TokenBuffer tokens;
+    private ObjectValue object =  new ObjectValue();
+
+    private int current = 0;
+
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    /**
+     * SyntaxErrorException used to fill in its stack trace, this keeps that cost in the baseline
+     */
+    private static class TracedSyntaxErrorException extends RuntimeException { }
+
+    OptionalParser(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * advances the current pointer, consuming a token. the final EOF token is never consumed
+     */
+    private void advance() {
+        if (current < tokens.size() - 1) current++;
+    }
+
+    /**
+     * @return the type of the next token to be consumed
+     */
+    private TokenType peek() {
+        return tokens.type(current);
+    }
+
+    /**
+     * @return the literal of the token that was just consumed
+     */
+    private Object previousLiteral() {
+        return tokens.literal(current - 1);
+    }
+
+    /**
+     * consumes a token only if it's a given type
+     * @param type the type to match against
+     * @return whether a token was consumed
+     */
+    private boolean match(TokenType type) {
+        if (peek() != type)
+            return false;
+        else {
+            advance();
+            return true;
+        }
+    }
+
+    /**
+     * check if the next token is of a number of given types. does not consume
+     * @param types the types to check against
+     * @return whether the next token is any type of types
+     */
+    private boolean check(TokenType... types) {
+        for (TokenType type : types) {
+            if (peek() == type) return true;
+        }
+        return false;
+    }
+
+    /**
+     * consumes next token of expected type, if unexpected adds error with message errorMessage to field errors and throws exception
+     * @param type type to check against
+     * @param errorMessage message of error added to errors if the token does not match
+     * @throws TracedSyntaxErrorException if the next token is not of expected type
+     */
+    private void mustMatch(TokenType type, String errorMessage) {
+        if (!match(type)) report(errorMessage);
+    }
+
+    /**
+     * skips the current pointer to the next token of type
+     * @param type type of token to skip to
+     */
+    private void skipTo(TokenType type) {
+        while (peek() != type && peek() != EOF) advance() ;
+    }
+
+    /**
+     * parses a string token
+     * @return Optional of a StringValue object if successful, else empty
+     */
+    private Optional<StringValue> string() {
+        if (match(STRING)) return Optional.of(new StringValue( (String) previousLiteral() ));
+        return Optional.empty();
+    }
+
+    /**
+     * parses a number token
+     * @return Optional of a NumberValue object if successful, else empty
+     */
+    private Optional<NumberValue> number() {
+        if (match(NUMBER)) return Optional.of(new NumberValue( (Number) previousLiteral() ));
+        return Optional.empty();
+    }
+
+    /**
+     * parses a boolean token
+     * @return Optional of a BooleanValue object if successful, else empty
+     */
+    private Optional<BooleanValue> booleanValue() {
+        if (check(FALSE, TRUE)) {
+            advance();
+            return Optional.of(new BooleanValue( (boolean) previousLiteral() ));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * parses a null token
+     * @return Optional of a NullValue object if successful, else empty
+     */
+    private Optional<NullValue> nullValue() {
+        if (match(NULL)) return Optional.of(new NullValue());
+        return Optional.empty();
+    }
+
+    /**
+     * parses an array
+     * @return Optional of a ArrayValue object if successful, else empty
+     */
+    private Optional<ArrayValue> array() throws TracedSyntaxErrorException {
+        if (!match(OPEN_SQUARE_BRACKET)) return Optional.empty();
+
+        ArrayValue array = new ArrayValue();
+
+        Optional<Value> newValue = Optional.empty();
+
+        try {
+            newValue = value();
+        } catch (TracedSyntaxErrorException e) {
+            return Optional.of(array);
+        }
+
+        while(newValue.isPresent()) {
+            array.addValue(newValue.get());
+
+            if (!match(COMMA)) break;
+
+            try {
+                newValue = value();
+            } catch (TracedSyntaxErrorException _) {
+                return Optional.of(array);
+            }
+        }
+
+        mustMatch(CLOSE_SQUARE_BRACKET, "array unclosed");
+
+        return Optional.of(array);
+    }
+
+    /**
+     * parses an object member (key value pair), meant to be used in parsing an object
+     * @return Optional of a Member object if successful, else empty
+     */
+    private Optional<Member> member() throws TracedSyntaxErrorException {
+        if (!match(STRING)) return Optional.empty();
+        String key = (String) previousLiteral();
+
+        mustMatch(COLON, "colon not found after key name");
+
+        Optional<Value> value = value();
+        if (value.isPresent()) {
+            return Optional.of(new Member(key, value.get()));
+        } else {
+            report("value not found in object member");
+            return Optional.empty(); // unreachable
+        }
+    }
+
+    /**
+     * parses an object
+     * @return Optional of a ObjectValue object if successful, else empty
+     */
+    private Optional<ObjectValue> object() throws TracedSyntaxErrorException {
+        if(!match(OPEN_BRACE)) return Optional.empty();
+
+        ObjectValue newObject = new ObjectValue();
+        Optional<Member> member = Optional.empty();
+        try {
+            member = member();
+        } catch (TracedSyntaxErrorException _) {
+            return Optional.of(newObject);
+        }
+
+        if (member.isPresent()) {
+            newObject.addMember(member.get());
+
+            while(match(COMMA)) {
+                try {
+                    member = member();
+                } catch (TracedSyntaxErrorException _) {
+                    return Optional.of(newObject);
+                }
+
+                if (member.isEmpty()) report("object has trailing comma");
+                else newObject.addMember(member.get());
+            }
+
+        }
+
+        mustMatch(CLOSE_BRACE, "object not terminated by closing brace");
+
+        return Optional.of(newObject);
+    }
+
+    /**
+     * parses a value (in key value pair aka member)
+     * @return Optional of a Value object if successful, else empty
+     */
+    private Optional<Value> value() {
+        Optional<Value> newValue;
+
+        newValue = object().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        newValue = array().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        newValue = number().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        newValue = string().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        newValue = booleanValue().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        newValue = nullValue().map(v -> (Value) v);
+        if (newValue.isPresent()) return newValue;
+
+        return Optional.empty();
+    }
+
+    /**
+     * adds a SyntaxError object to errors field and throws exception
+     * @param message error messsage
+     * @throws TracedSyntaxErrorException
+     */
+    private void report(String message) throws TracedSyntaxErrorException {
+        errors.add(new SyntaxError(message, tokens.line(current)));
+        throw new TracedSyntaxErrorException();
+    }
+
+
+    /**
+     * wrapper parse function. parses the top level object
+     */
+    public void parse() {
+        object = object().orElse(new ObjectValue());
+    }
+
+}
+
@@ -0,0 +1,83 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the single dispatch Parser with the Optional based OptionalParser it replaced.
+ * the tokens are lexed once in setup, so only parsing is measured.
+ * run with: mvn -P jmh test-compile exec:exec -Djmh.benchmarks=ParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ParserBenchmark {
+    /**
+     * valid.json repeated as the elements of a top level array
+     */
+    @Param({"1", "100"})
+    public int copies;
+
+    private TokenBuffer valid;
+    private TokenBuffer invalid;
+
+    @Setup
+    public void setup() throws IOException {
+        String file;
+        try (InputStream is = ParserBenchmark.class.getResourceAsStream("/valid.json")) {
+            if (is == null) throw new IOException("/valid.json not on the classpath");
+            file = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        String records = String.join(",\n", Collections.nCopies(copies, file));
+        valid = lex("{\"records\": [" + records + "]}");
+        // the syntax error is found at the very end, after everything else was parsed
+        invalid = lex("{\"records\": [" + records + ", }");
+    }
+
+    private static TokenBuffer lex(String source) {
+        Lexer lexer = new Lexer(source);
+        lexer.lexTokens();
+        return lexer.getTokenBuffer();
+    }
+
+    @Benchmark
+    public ObjectValue parser() {
+        Parser parser = new Parser(valid);
+        parser.parse();
+        return parser.getObject();
+    }
+
+    @Benchmark
+    public ObjectValue optionalParser() {
+        OptionalParser parser = new OptionalParser(valid);
+        parser.parse();
+        return parser.getObject();
+    }
+
+    @Benchmark
+    public List<SyntaxError> parserError() {
+        Parser parser = new Parser(invalid);
+        parser.parse();
+        return parser.getErrors();
+    }
+
+    @Benchmark
+    public List<SyntaxError> optionalParserError() {
+        OptionalParser parser = new OptionalParser(invalid);
+        parser.parse();
+        return parser.getErrors();
+    }
+}
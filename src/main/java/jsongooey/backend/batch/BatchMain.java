@@ -0,0 +1,75 @@
+package jsongooey.backend.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * command line entry point of BatchProcessor: validates every json file under a directory
+ * and prints the errors of each invalid file and a summary.
+ * <p>
+ * usage: java -cp jsongooey.jar jsongooey.backend.batch.BatchMain directory [glob] [max in flight MiB]
+ * <p>
+ * exits with 1 if a file is invalid, 2 on a usage or walk error
+ */
+public class BatchMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxInFlightBytes = args.length > 2 ? maxInFlightBytes(args[2]) : BatchProcessor.DEFAULT_MAX_IN_FLIGHT_BYTES;
+        if (args.length < 1 || args.length > 3 || !Files.isDirectory(Path.of(args[0])) || maxInFlightBytes < 1) {
+            System.err.println("usage: BatchMain directory [glob] [max in flight MiB]");
+            System.exit(2);
+        }
+
+        BatchProcessor processor = new BatchProcessor();
+        if (args.length > 1) processor.setGlob(args[1]);
+        processor.setMaxInFlightBytes(maxInFlightBytes);
+
+        long start = System.nanoTime();
+        List<FileResult> results;
+        try {
+            results = processor.process(Path.of(args[0]));
+        } catch (IOException e) {
+            System.err.println("could not walk " + args[0] + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        Duration wall = Duration.ofNanos(System.nanoTime() - start);
+
+        int invalid = 0;
+        long bytes = 0;
+        Duration read = Duration.ZERO;
+        Duration parse = Duration.ZERO;
+        for (FileResult result : results) {
+            bytes += result.size();
+            read = read.plus(result.readTime());
+            parse = parse.plus(result.parseTime());
+            if (result.isValid()) continue;
+
+            invalid++;
+            System.out.println(result.path());
+            if (result.failure() != null) System.out.println("  " + result.failure());
+            result.lexerErrors().forEach(error -> System.out.println("  " + error));
+            result.errors().forEach(error -> System.out.println("  " + error));
+        }
+
+        System.out.printf("%d files, %d invalid, %d bytes in %d ms (read %d ms, parse %d ms summed over files)%n",
+                results.size(), invalid, bytes, wall.toMillis(), read.toMillis(), parse.toMillis());
+        System.exit(invalid > 0 ? 1 : 0);
+    }
+
+    /**
+     * @param mebibytes the max in flight argument
+     * @return the bytes, -1 if the argument is not a positive number of MiB that fits an int in bytes
+     */
+    static int maxInFlightBytes(String mebibytes) {
+        try {
+            int value = Integer.parseInt(mebibytes);
+            return value < 1 || value > Integer.MAX_VALUE >> 20 ? -1 : value << 20;
+        } catch (NumberFormatException _) {
+            return -1;
+        }
+    }
+}
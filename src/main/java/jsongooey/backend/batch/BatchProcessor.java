@@ -0,0 +1,147 @@
+package jsongooey.backend.batch;
+
+import jsongooey.backend.parser.JsonParsingService;
+import jsongooey.backend.parser.ParseResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * parses every json file under a directory, each file on its own virtual thread.
+ * a thread reads its file and then parses it, so the reads of some files overlap with the parses of others.
+ * parsing goes through a JsonParsingService, so the workspaces are shared by the threads.
+ * <p>
+ * the threads are scoped to process(): it returns only once every file is done, and if it is interrupted
+ * the threads still running are interrupted as well. the bytes of the files being read or parsed at once
+ * are capped, the directory walk waits for files to finish when the cap is reached.
+ * a file bigger than the cap is processed alone.
+ * <p>
+ * errors never stop the run, each file gets a FileResult with its errors and timings
+ */
+public class BatchProcessor {
+    public static final int DEFAULT_MAX_IN_FLIGHT_BYTES = 64 << 20;
+
+    private final JsonParsingService service = new JsonParsingService();
+    private int maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+    private PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:**.json");
+    private BiConsumer<Path, ParseResult> handler = (path, result) -> {};
+
+    /**
+     * @param maxInFlightBytes maximum total size of the files being read or parsed at once
+     */
+    public void setMaxInFlightBytes(int maxInFlightBytes) {
+        if (maxInFlightBytes < 1) throw new IllegalArgumentException("max in flight bytes must be positive: " + maxInFlightBytes);
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    public int getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * @param glob files to process, matched against their whole path, **.json by default
+     */
+    public void setGlob(String glob) {
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    }
+
+    /**
+     * @param handler called on the virtual thread of each file after it is parsed, to validate or transform it.
+     *                an exception it throws is the failure of the file
+     */
+    public void setHandler(BiConsumer<Path, ParseResult> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * processes every matching regular file under a directory
+     * @param directory the directory to walk
+     * @return a result per file, in the order the files were found
+     * @throws IOException if the directory can not be walked
+     * @throws InterruptedException if interrupted while waiting, the files still running are interrupted too
+     */
+    public List<FileResult> process(Path directory) throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlightBytes);
+        List<Future<FileResult>> futures = new ArrayList<>();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             Stream<Path> files = Files.walk(directory)) {
+            try {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).filter(matcher::matches)::iterator) {
+                    long size = size(file);
+                    int permits = (int) Math.min(size, maxInFlightBytes);
+                    inFlight.acquire(permits);
+                    futures.add(threads.submit(() -> {
+                        try {
+                            return process(file, size);
+                        } finally {
+                            inFlight.release(permits);
+                        }
+                    }));
+                }
+
+                List<FileResult> results = new ArrayList<>(futures.size());
+                for (var future : futures) results.add(future.get());
+                return results;
+            } catch (InterruptedException e) {
+                threads.shutdownNow();
+                throw e;
+            } catch (UncheckedIOException e) {
+                // the walk failed on a directory below the first one, the iterator can only throw it unchecked
+                threads.shutdownNow();
+                throw e.getCause();
+            } catch (ExecutionException e) {
+                // process(Path, long) catches everything, so this is a bug
+                threads.shutdownNow();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException _) {
+            // reading it will fail as well and report why
+            return 0;
+        }
+    }
+
+    private FileResult process(Path file, long size) {
+        long start = System.nanoTime();
+        String source;
+        try {
+            source = Files.readString(file);
+        } catch (IOException e) {
+            Duration read = Duration.ofNanos(System.nanoTime() - start);
+            return new FileResult(file, size, List.of(), List.of(), "could not read: " + e, read, Duration.ZERO);
+        }
+        long read = System.nanoTime();
+
+        ParseResult result = service.parse(source);
+        String failure = null;
+        try {
+            handler.accept(file, result);
+        } catch (RuntimeException e) {
+            failure = "handler failed: " + e;
+        }
+        long parsed = System.nanoTime();
+
+        return new FileResult(file, size, result.lexerErrors(), result.errors(), failure,
+                Duration.ofNanos(read - start), Duration.ofNanos(parsed - read));
+    }
+}
@@ -0,0 +1,29 @@
+package jsongooey.backend.batch;
+
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.parser.SyntaxError;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * outcome of one file of a BatchProcessor run
+ * @param path the file
+ * @param size size of the file in bytes
+ * @param lexerErrors lexical errors, the file is not parsed if there are any
+ * @param errors syntax errors
+ * @param failure why the file could not be read or handled, null if it was
+ * @param readTime time spent reading the file
+ * @param parseTime time spent lexing, parsing and handling the file
+ */
+public record FileResult(Path path, long size, List<LexerError> lexerErrors, List<SyntaxError> errors,
+                         String failure, Duration readTime, Duration parseTime) {
+
+    /**
+     * @return whether the file was read and is valid json
+     */
+    public boolean isValid() {
+        return failure == null && lexerErrors.isEmpty() && errors.isEmpty();
+    }
+}
@@ -1,10 +1,19 @@
 package jsongooey.backend.jsonmodel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * json array. subclasses may fill the elements on first access, so everything goes through getArray().
+ * once frozen, getArray() is read only and the hash is cached, see freeze()
+ */
 public class ArrayValue implements Value {
-    private List<Value> array = new ArrayList<>();
+    // made on first access, so subclasses that do not use it pay nothing
+    private List<Value> array;
+    private boolean frozen = false;
+    // hash of the subtree, cached when frozen: nothing in it can change, and the children cached theirs first
+    private int hash;
 
     @Override
     public <R> R accept(ValueVisitor<R> visitor) {
@@ -12,45 +21,73 @@ public class ArrayValue implements Value {
     }
 
     public List<Value> getArray() {
-        return array;
+        if (array == null) array = new ArrayList<>();
+        return frozen ? Collections.unmodifiableList(array) : array;
+    }
+
+    /**
+     * makes this array and every object and array in it read only, so they can be shared, see Deduplicator.
+     * changing a frozen value throws UnsupportedOperationException. frozen values compute their hash once,
+     * and equals() tells frozen values apart by it before comparing them
+     * @return this
+     */
+    public ArrayValue freeze() {
+        ValueWalker.freeze(this);
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * freezes only this array, its children must be frozen already
+     */
+    void markFrozen() {
+        hash = getArray().hashCode();
+        frozen = true;
     }
 
     public ArrayValue addValue(Value value) {
-        this.array.add(value);
+        getArray().add(value);
         return this;
     }
 
     public ArrayValue addValue(String value) {
-        this.array.add(new StringValue(value));
+        getArray().add(new StringValue(value));
         return this;
     }
 
     public ArrayValue addValue(double value) {
-        this.array.add(new NumberValue(value));
+        getArray().add(new NumberValue(value));
+        return this;
+    }
+
+    public ArrayValue addValue(long value) {
+        getArray().add(new NumberValue(value));
         return this;
     }
 
     public ArrayValue addValue(boolean value) {
-        this.array.add(new BooleanValue(value));
+        getArray().add(BooleanValue.of(value));
         return this;
     }
 
+    // toString(), equals() and hashCode() walk the tree without recursion, see ValueWalker
     @Override
     public String toString() {
-        return array.toString();
+        return ValueWalker.print(this);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-
-        ArrayValue arrayValue = (ArrayValue) obj;
-        return array.equals(arrayValue.array);
+        // LazyArrayValue is equal to an ArrayValue with the same elements
+        return obj instanceof ArrayValue other && ValueWalker.equal(this, other);
     }
 
     @Override
     public int hashCode() {
-        return array.hashCode();
+        return frozen ? hash : ValueWalker.hash(this);
     }
 }
@@ -1,12 +1,25 @@
 package jsongooey.backend.jsonmodel;
 
 public class BooleanValue implements Value {
+    /**
+     * shared instances, a BooleanValue can not change so every true and every false of a document can be the same one
+     */
+    public static final BooleanValue TRUE = new BooleanValue(true);
+    public static final BooleanValue FALSE = new BooleanValue(false);
+
     private Boolean value;
 
     public BooleanValue(Boolean value) {
         this.value = value;
     }
 
+    /**
+     * @return TRUE or FALSE
+     */
+    public static BooleanValue of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     public Boolean getValue() {
         return value;
     }
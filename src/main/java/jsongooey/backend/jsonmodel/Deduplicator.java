@@ -0,0 +1,316 @@
+package jsongooey.backend.jsonmodel;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * hash-consing of objects and arrays: every container of a tree is replaced by one shared instance per content,
+ * so a config block or default record repeated thousands of times is held once. the containers are frozen
+ * on the way, the shared instances must not change.
+ * <p>
+ * the tree is canonicalized bottom up, so when a container is looked up its children are shared instances already
+ * and are compared by identity: looking a container up costs its width, not its size. containers are the same
+ * only if they would print the same: members in the same order, and numbers of the same type, 1 is not 1.0.
+ * <p>
+ * the table holds the shared instances weakly, so it can be kept across documents, see JsonParsingService,
+ * and a document that is dropped takes its instances with it. thread safe, one tree is canonicalized at a time
+ */
+public final class Deduplicator {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+    private int size = 0;
+    private final ReferenceQueue<Value> collected = new ReferenceQueue<>();
+
+    private long shared = 0;
+    private long bytesSaved = 0;
+
+    /**
+     * a shared container, weakly referenced, chained in its bucket
+     */
+    private static final class Entry extends WeakReference<Value> {
+        final int hash;
+        Entry next;
+
+        Entry(Value value, int hash, Entry next, ReferenceQueue<Value> queue) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * an open container and the position in its children, the last child can be replaced
+     */
+    private static final class Frame {
+        final Value container;
+        final Iterator<Map.Entry<String, Value>> members;
+        final ListIterator<Value> elements;
+        Map.Entry<String, Value> member;
+
+        Frame(Value container) {
+            this.container = container;
+            if (container instanceof ObjectValue object) {
+                members = object.getMembers().entrySet().iterator();
+                elements = null;
+            } else {
+                members = null;
+                elements = ((ArrayValue) container).getArray().listIterator();
+            }
+        }
+
+        boolean hasNext() {
+            return members != null ? members.hasNext() : elements.hasNext();
+        }
+
+        Value next() {
+            if (members == null) return elements.next();
+            member = members.next();
+            return member.getValue();
+        }
+
+        void replace(Value value) {
+            if (members != null) member.setValue(value);
+            else elements.set(value);
+        }
+    }
+
+    /**
+     * replaces every object and array in the tree by the shared instance of its content, freezing them.
+     * containers that are frozen already can not have their children replaced, they are looked up as they are
+     * @param root the tree, scalars are returned as they are
+     * @return the shared instance of root
+     */
+    public synchronized Value deduplicate(Value root) {
+        if (!isContainer(root)) return root;
+        expunge();
+        if (isFrozen(root)) return intern(root);
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        while (true) {
+            Frame frame = stack.peek();
+            if (frame.hasNext()) {
+                Value child = frame.next();
+                if (!isContainer(child)) continue;
+                if (!isFrozen(child)) {
+                    stack.push(new Frame(child));
+                    continue;
+                }
+                Value canonical = intern(child);
+                if (canonical != child) frame.replace(canonical);
+                continue;
+            }
+
+            stack.pop();
+            Value canonical = intern(frame.container);
+            Frame parent = stack.peek();
+            if (parent == null) return canonical;
+            if (canonical != frame.container) parent.replace(canonical);
+        }
+    }
+
+    /**
+     * @return number of containers that were replaced by a shared instance
+     */
+    public synchronized long getSharedCount() {
+        return shared;
+    }
+
+    /**
+     * estimated with compressed references, as on a 64 bit JVM with a heap under 32 GB
+     * @return bytes of the containers that were replaced, and of the scalars only they held
+     */
+    public synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * @return number of shared instances in the table that were not collected yet
+     */
+    public synchronized int size() {
+        expunge();
+        return size;
+    }
+
+    /**
+     * @param container a container whose children are shared instances already, where possible
+     * @return the shared instance equal to it, the container itself if it is the first one
+     */
+    private Value intern(Value container) {
+        int hash = hash(container);
+        int bucket = hash & (table.length - 1);
+        for (Entry entry = table[bucket]; entry != null; entry = entry.next) {
+            Value candidate = entry.get();
+            if (entry.hash == hash && candidate != null && same(candidate, container)) {
+                if (candidate != container) {
+                    shared++;
+                    bytesSaved += footprint(container);
+                }
+                return candidate;
+            }
+        }
+
+        if (container instanceof ObjectValue object) object.markFrozen();
+        else ((ArrayValue) container).markFrozen();
+
+        table[bucket] = new Entry(container, hash, table[bucket], collected);
+        if (++size > table.length * 3 / 4) resize();
+        return container;
+    }
+
+    /**
+     * drops the entries of the shared instances that were collected
+     */
+    private void expunge() {
+        for (Object reference; (reference = collected.poll()) != null; ) {
+            Entry dead = (Entry) reference;
+            int bucket = dead.hash & (table.length - 1);
+            Entry previous = null;
+            for (Entry entry = table[bucket]; entry != null; previous = entry, entry = entry.next) {
+                if (entry != dead) continue;
+                if (previous == null) table[bucket] = entry.next;
+                else previous.next = entry.next;
+                size--;
+                break;
+            }
+        }
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        table = new Entry[old.length * 2];
+        for (Entry head : old) {
+            for (Entry entry = head; entry != null; ) {
+                Entry next = entry.next;
+                int bucket = entry.hash & (table.length - 1);
+                entry.next = table[bucket];
+                table[bucket] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    private static boolean isContainer(Value value) {
+        return value instanceof ObjectValue || value instanceof ArrayValue;
+    }
+
+    private static boolean isFrozen(Value container) {
+        return container instanceof ObjectValue object ? object.isFrozen() : ((ArrayValue) container).isFrozen();
+    }
+
+    /**
+     * hash of the content of a container, children that are containers by identity
+     */
+    private static int hash(Value container) {
+        int hash;
+        if (container instanceof ObjectValue object) {
+            hash = 1;
+            for (var member : object.getMembers().entrySet()) {
+                hash = 31 * hash + member.getKey().hashCode();
+                hash = 31 * hash + childHash(member.getValue());
+            }
+        } else {
+            hash = 2;
+            for (Value element : ((ArrayValue) container).getArray()) {
+                hash = 31 * hash + childHash(element);
+            }
+        }
+        // spread the high bits, buckets are picked by the low ones
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int childHash(Value child) {
+        return switch (child) {
+            case null -> 0;
+            case ObjectValue _, ArrayValue _ -> System.identityHashCode(child);
+            case StringValue string -> string.getValue().hashCode();
+            case NumberValue number -> number.getNumber().hashCode();
+            case BooleanValue bool -> bool.getValue() ? 1231 : 1237;
+            default -> 7;
+        };
+    }
+
+    /**
+     * @return whether the containers have the same content, in the same order, children that are containers by identity
+     */
+    private static boolean same(Value a, Value b) {
+        if (a == b) return true;
+        if (a instanceof ObjectValue first && b instanceof ObjectValue second) {
+            Map<String, Value> members = first.getMembers();
+            Map<String, Value> others = second.getMembers();
+            if (members.size() != others.size()) return false;
+
+            var other = others.entrySet().iterator();
+            for (var member : members.entrySet()) {
+                var otherMember = other.next();
+                if (!member.getKey().equals(otherMember.getKey())) return false;
+                if (!sameChild(member.getValue(), otherMember.getValue())) return false;
+            }
+            return true;
+        }
+        if (a instanceof ArrayValue first && b instanceof ArrayValue second) {
+            var elements = first.getArray();
+            var others = second.getArray();
+            if (elements.size() != others.size()) return false;
+
+            for (int i = 0; i < elements.size(); i++) {
+                if (!sameChild(elements.get(i), others.get(i))) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean sameChild(Value a, Value b) {
+        if (a == b) return true;
+        return switch (a) {
+            case null -> false;
+            case ObjectValue _, ArrayValue _ -> false;
+            case StringValue string -> b instanceof StringValue other && string.getValue().equals(other.getValue());
+            // unlike NumberValue.equals, the type of the number matters: 1 and 1.0 print differently
+            case NumberValue number -> b instanceof NumberValue other && number.getNumber().equals(other.getNumber());
+            case BooleanValue bool -> b instanceof BooleanValue other && bool.getValue().equals(other.getValue());
+            default -> b != null && a.getClass() == b.getClass();
+        };
+    }
+
+    /**
+     * @return estimated bytes of a container, without its children that are containers
+     */
+    private static long footprint(Value container) {
+        long bytes;
+        int children;
+        if (container instanceof ObjectValue object) {
+            children = object.getMembers().size();
+            bytes = object instanceof ShapedObjectValue shaped && shaped.getShape() != null
+                    ? 24 + 16 + 4L * children // the object and its values
+                    : 16 + 56 + 16 + 4L * children * 2 + 40L * children; // the object and a LinkedHashMap
+            for (Value member : object.getMembers().values()) bytes += scalarFootprint(member);
+        } else {
+            ArrayValue array = (ArrayValue) container;
+            if (array instanceof PackedArrayValue packed && packed.isPacked()) {
+                // the elements are in the packed array, not in NumberValues
+                return 40 + 16 + 8L * packed.size();
+            }
+            children = array.getArray().size();
+            bytes = 16 + 24 + 16 + 4L * children; // the object and an ArrayList
+            for (Value element : array.getArray()) bytes += scalarFootprint(element);
+        }
+        return bytes;
+    }
+
+    private static long scalarFootprint(Value value) {
+        return switch (value) {
+            case StringValue string -> 16 + 24 + 16 + string.getValue().length();
+            case NumberValue number -> 16 + (number.getNumber() instanceof Long || number.getNumber() instanceof Double ? 16 : 40);
+            // containers were counted on their own, booleans and nulls are shared
+            case null, default -> 0;
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.List;
+
+import static jsongooey.backend.lexer.TokenType.CLOSE_SQUARE_BRACKET;
+
+/**
+ * ArrayValue whose elements are decoded from the token buffer the first time they are needed.
+ * elements that are containers are lazy again, so only what is navigated gets decoded.
+ * once decoded it behaves like any ArrayValue. not thread safe
+ */
+public class LazyArrayValue extends ArrayValue {
+    private LazyIndex index;
+    private final int start;
+
+    /**
+     * @param index index of the document
+     * @param start index of the opening bracket token
+     */
+    public LazyArrayValue(LazyIndex index, int start) {
+        this.index = index;
+        this.start = start;
+    }
+
+    /**
+     * @return whether the elements were decoded already
+     */
+    public boolean isDecoded() {
+        return index == null;
+    }
+
+    /**
+     * @return whether the array has no elements, without decoding it
+     */
+    public boolean isEmpty() {
+        return isDecoded() ? super.getArray().isEmpty() : index.isEmpty(start);
+    }
+
+    @Override
+    public List<Value> getArray() {
+        if (index != null) decode();
+        return super.getArray();
+    }
+
+    private void decode() {
+        LazyIndex decoding = index;
+        index = null;
+
+        List<Value> array = super.getArray();
+        int token = start + 1;
+        while (decoding.tokens().type(token) != CLOSE_SQUARE_BRACKET) {
+            array.add(decoding.value(token));
+            token = decoding.next(token);
+        }
+    }
+}
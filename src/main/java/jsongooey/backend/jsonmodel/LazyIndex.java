@@ -0,0 +1,76 @@
+package jsongooey.backend.jsonmodel;
+
+import jsongooey.backend.lexer.KeyCache;
+import jsongooey.backend.lexer.TokenBuffer;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * the token buffer of a document together with its structural index: for the opening token of every
+ * object and array, the index of its closing token. shared by the LazyObjectValue and LazyArrayValue of a document,
+ * it lets a container decode its children and jump over nested containers without looking into them.
+ * the tokens must form valid json, see LazyParser
+ */
+public final class LazyIndex {
+    private final TokenBuffer tokens;
+    private final int[] ends;
+    // keys of the document, so the objects decoded from it share one String per key
+    private final KeyCache keys = new KeyCache();
+
+    /**
+     * @param tokens tokens of the document
+     * @param ends for every opening bracket token, the index of its closing bracket token
+     */
+    public LazyIndex(TokenBuffer tokens, int[] ends) {
+        this.tokens = tokens;
+        this.ends = ends;
+    }
+
+    TokenBuffer tokens() {
+        return tokens;
+    }
+
+    /**
+     * @param token index of the STRING token of a member key
+     */
+    String key(int token) {
+        return keys.get(tokens, token);
+    }
+
+    /**
+     * @param token index of the first token of a value
+     * @return the value, containers are lazy
+     */
+    Value value(int token) {
+        return switch (tokens.type(token)) {
+            case OPEN_BRACE -> new LazyObjectValue(this, token);
+            case OPEN_SQUARE_BRACKET -> new LazyArrayValue(this, token);
+            case STRING -> new StringValue((String) tokens.literal(token));
+            case NUMBER -> new NumberValue((Number) tokens.literal(token));
+            case TRUE -> BooleanValue.TRUE;
+            case FALSE -> BooleanValue.FALSE;
+            case NULL -> NullValue.NULL;
+            default -> throw new IllegalStateException("no value at token " + token + ": " + tokens.type(token));
+        };
+    }
+
+    /**
+     * @param token index of the first token of a value
+     * @return index of the token after the value, after the separating comma if there is one
+     */
+    int next(int token) {
+        int after = switch (tokens.type(token)) {
+            case OPEN_BRACE, OPEN_SQUARE_BRACKET -> ends[token] + 1;
+            default -> token + 1;
+        };
+        return tokens.type(after) == COMMA ? after + 1 : after;
+    }
+
+    /**
+     * @param token index of the opening bracket of a container
+     * @return whether the container has no children
+     */
+    boolean isEmpty(int token) {
+        return ends[token] == token + 1;
+    }
+}
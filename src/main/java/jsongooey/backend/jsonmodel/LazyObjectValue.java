@@ -0,0 +1,58 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.Map;
+
+import static jsongooey.backend.lexer.TokenType.CLOSE_BRACE;
+
+/**
+ * ObjectValue whose members are decoded from the token buffer the first time they are needed.
+ * member values that are containers are lazy again, so only what is navigated gets decoded.
+ * once decoded it behaves like any ObjectValue. not thread safe
+ */
+public class LazyObjectValue extends ObjectValue {
+    private LazyIndex index;
+    private final int start;
+
+    /**
+     * @param index index of the document
+     * @param start index of the opening brace token
+     */
+    public LazyObjectValue(LazyIndex index, int start) {
+        this.index = index;
+        this.start = start;
+    }
+
+    /**
+     * @return whether the members were decoded already
+     */
+    public boolean isDecoded() {
+        return index == null;
+    }
+
+    /**
+     * @return whether the object has no members, without decoding it
+     */
+    public boolean isEmpty() {
+        return isDecoded() ? super.getMembers().isEmpty() : index.isEmpty(start);
+    }
+
+    @Override
+    public Map<String, Value> getMembers() {
+        if (index != null) decode();
+        return super.getMembers();
+    }
+
+    private void decode() {
+        LazyIndex decoding = index;
+        index = null;
+
+        Map<String, Value> members = super.getMembers();
+        int token = start + 1;
+        while (decoding.tokens().type(token) != CLOSE_BRACE) {
+            String key = decoding.key(token);
+            int value = token + 2; // after the colon
+            members.put(key, decoding.value(value));
+            token = decoding.next(value);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package jsongooey.backend.jsonmodel;
 
 public class NullValue implements Value {
+    /**
+     * shared instance, every null of a document can be the same one
+     */
+    public static final NullValue NULL = new NullValue();
 
     @Override
     public <R> R accept(ValueVisitor<R> visitor) {
@@ -1,16 +1,92 @@
 package jsongooey.backend.jsonmodel;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * holds a number in whichever representation is exact: Long for integers, Double for decimals that
+ * survive the round trip through a double, BigDecimal for everything else.
+ * equality is numeric, so 42 and 42.0 are equal
+ */
 public class NumberValue implements Value {
-    private double value;
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final Number value;
 
     public NumberValue(double value) {
         this.value = value;
     }
 
+    public NumberValue(long value) {
+        this.value = value;
+    }
+
+    public NumberValue(BigDecimal value) {
+        this.value = value;
+    }
+
+    /**
+     * @param value a Long, Double or BigDecimal. other Number types are converted to one of these
+     */
+    public NumberValue(Number value) {
+        this.value = switch (value) {
+            case Long l -> l;
+            case Double d -> d;
+            case BigDecimal b -> b;
+            case Integer i -> i.longValue();
+            case Short s -> s.longValue();
+            case Byte b -> b.longValue();
+            case Float f -> f.doubleValue();
+            case BigInteger b -> new BigDecimal(b);
+            default -> new BigDecimal(value.toString());
+        };
+    }
+
+    /**
+     * @return the value as a double, possibly losing precision
+     */
     public double getValue() {
+        return value.doubleValue();
+    }
+
+    /**
+     * @return the exact value, a Long, Double or BigDecimal
+     */
+    public Number getNumber() {
         return value;
     }
 
+    /**
+     * @return whether the value is held as a Long
+     */
+    public boolean isLong() {
+        return value instanceof Long;
+    }
+
+    /**
+     * @return the value as a long, possibly truncating it
+     */
+    public long longValue() {
+        return value.longValue();
+    }
+
+    /**
+     * @return the exact value as a BigDecimal
+     * @throws NumberFormatException if the value is an infinite or NaN double
+     */
+    public BigDecimal toBigDecimal() {
+        return switch (value) {
+            case Long l -> BigDecimal.valueOf(l);
+            case Double d -> new BigDecimal(d);
+            default -> (BigDecimal) value;
+        };
+    }
+
+    private boolean isFinite() {
+        return !(value instanceof Double d) || Double.isFinite(d);
+    }
+
     @Override
     public <R> R accept(ValueVisitor<R> visitor) {
         return visitor.visit(this);
@@ -18,7 +94,7 @@ public class NumberValue implements Value {
 
     @Override
     public String toString() {
-        return String.valueOf(value);
+        return value.toString();
     }
 
     @Override
@@ -27,11 +103,34 @@ public class NumberValue implements Value {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         NumberValue other = (NumberValue) obj;
-        return other.value == this.value;
+        if (value instanceof Long a && other.value instanceof Long b) return a.longValue() == b.longValue();
+        if (value instanceof Double a && other.value instanceof Double b) return a.doubleValue() == b.doubleValue();
+        if (!isFinite() || !other.isFinite()) return value.doubleValue() == other.value.doubleValue();
+        return toBigDecimal().compareTo(other.toBigDecimal()) == 0;
     }
 
+    /**
+     * integral values hash like a long whatever their representation, other values hash like a double,
+     * so numerically equal values have equal hashes
+     */
     @Override
     public int hashCode() {
-        return Double.valueOf(value).hashCode();
+        switch (value) {
+            case Long l -> {
+                return Long.hashCode(l);
+            }
+            case Double d -> {
+                if (d == Math.rint(d) && d >= -0x1p63 && d < 0x1p63) return Long.hashCode(d.longValue());
+                return Double.hashCode(d);
+            }
+            default -> {
+                BigDecimal b = (BigDecimal) value;
+                if (b.signum() == 0) return 0;
+                if (b.stripTrailingZeros().scale() <= 0 && b.compareTo(LONG_MIN) >= 0 && b.compareTo(LONG_MAX) <= 0) {
+                    return Long.hashCode(b.longValue());
+                }
+                return Double.hashCode(b.doubleValue());
+            }
+        }
     }
 }
@@ -2,12 +2,20 @@ package jsongooey.backend.jsonmodel;
 
 import jsongooey.backend.parser.Member;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * json object. subclasses may fill the members on first access, so everything goes through getMembers().
+ * once frozen, getMembers() is read only and the hash is cached, see freeze()
+ */
 public class ObjectValue implements Value {
-    // LinkedHashMap to preserve input order of members
-    private Map<String, Value> members = new LinkedHashMap<>();
+    // LinkedHashMap to preserve input order of members, made on first access so subclasses that do not use it pay nothing
+    private Map<String, Value> members;
+    private boolean frozen = false;
+    // hash of the subtree, cached when frozen: nothing in it can change, and the children cached theirs first
+    private int hash;
 
     @Override
     public <R> R accept(ValueVisitor<R> visitor) {
@@ -15,64 +23,79 @@ public class ObjectValue implements Value {
     }
 
     public Map<String, Value> getMembers() {
-        return members;
+        if (members == null) members = new LinkedHashMap<>();
+        return frozen ? Collections.unmodifiableMap(members) : members;
+    }
+
+    /**
+     * makes this object and every object and array in it read only, so they can be shared, see Deduplicator.
+     * changing a frozen value throws UnsupportedOperationException. frozen values compute their hash once,
+     * and equals() tells frozen values apart by it before comparing them
+     * @return this
+     */
+    public ObjectValue freeze() {
+        ValueWalker.freeze(this);
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * freezes only this object, its children must be frozen already
+     */
+    void markFrozen() {
+        hash = getMembers().hashCode();
+        frozen = true;
     }
 
     public ObjectValue addMember(String name, Value value) {
-        members.put(name, value);
+        getMembers().put(name, value);
         return this;
     }
 
     public ObjectValue addMember(String name, String value) {
-        members.put(name, new StringValue(value));
+        getMembers().put(name, new StringValue(value));
         return this;
     }
 
     public ObjectValue addMember(String name, double value) {
-        members.put(name, new NumberValue(value));
+        getMembers().put(name, new NumberValue(value));
+        return this;
+    }
+
+    public ObjectValue addMember(String name, long value) {
+        getMembers().put(name, new NumberValue(value));
         return this;
     }
 
     public ObjectValue addMember(String name, boolean value) {
-        members.put(name, new BooleanValue(value));
+        getMembers().put(name, BooleanValue.of(value));
         return this;
     }
 
     public ObjectValue addMember(Member member) {
-        members.put(member.key(), member.value());
+        getMembers().put(member.key(), member.value());
         return this;
     }
 
-
+    // toString(), equals() and hashCode() walk the tree without recursion, see ValueWalker,
+    // so documents nested deeper than the thread stack still print and compare
     @Override
     public String toString() {
-        StringBuilder out = new StringBuilder();
-
-        out.append("{");
-        for (var entry : members.entrySet()) {
-            out
-                    .append(entry.getKey())
-                    .append(": ")
-                    .append(entry.getValue())
-                    .append(", ");
-        }
-        if (out.length() > 2) out.deleteCharAt(out.length() - 2);
-        out.append("}");
-
-        return out.toString();
+        return ValueWalker.print(this);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-
-        ObjectValue other = (ObjectValue) obj;
-        return members.equals(other.members);
+        // LazyObjectValue is equal to an ObjectValue with the same members
+        return obj instanceof ObjectValue other && ValueWalker.equal(this, other);
     }
 
     @Override
     public int hashCode() {
-        return members.hashCode();
+        return frozen ? hash : ValueWalker.hash(this);
     }
 }
@@ -0,0 +1,232 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+
+/**
+ * ArrayValue that packs its elements into a long[] while they are all longs, or a double[] once a double comes along,
+ * instead of holding a NumberValue per element. the parsers build every array as one, so arrays of numbers
+ * take about 8 bytes per element and can be summed or iterated with the primitive accessors.
+ * <p>
+ * the first element that can not be packed, a string, a container, a BigDecimal or a long a double can not hold
+ * exactly, unpacks the array into the element list of ArrayValue for good. so does changing an element
+ * other than by appending.
+ * <p>
+ * getArray() is a view: while packed, its elements are NumberValues made on access. the double[] does not
+ * remember which elements were written as integers, so integral doubles come back as longs: 2.0 reads as 2,
+ * which is equal to it, see NumberValue
+ */
+public class PackedArrayValue extends ArrayValue {
+    // largest magnitude of a long that a double holds exactly
+    private static final long MAX_EXACT = 1L << 53;
+    private static final int INITIAL_CAPACITY = 8;
+
+    // while every element is a long
+    private long[] longs;
+    // once an element is a double, null while every element is a long
+    private double[] doubles;
+    private int size = 0;
+    private boolean packed = true;
+
+    private final List<Value> view = new View();
+
+    @Override
+    public List<Value> getArray() {
+        return isFrozen() ? Collections.unmodifiableList(view) : view;
+    }
+
+    @Override
+    public ArrayValue addValue(double value) {
+        if (isFrozen()) throw new UnsupportedOperationException("array is frozen");
+        if (!packed || !pack(value)) super.addValue(value);
+        return this;
+    }
+
+    @Override
+    public ArrayValue addValue(long value) {
+        if (isFrozen()) throw new UnsupportedOperationException("array is frozen");
+        if (!packed || !pack(value)) super.addValue(value);
+        return this;
+    }
+
+    /**
+     * @return whether the elements are packed, so the primitive accessors never box
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * @return whether the elements are packed as longs
+     */
+    public boolean isIntegral() {
+        return packed && doubles == null;
+    }
+
+    public int size() {
+        return view.size();
+    }
+
+    /**
+     * @return the element as a long, possibly truncating it
+     * @throws IllegalStateException if the element is not a number
+     */
+    public long getLong(int index) {
+        if (!packed) return number(index).longValue();
+        Objects.checkIndex(index, size);
+        return doubles == null ? longs[index] : (long) doubles[index];
+    }
+
+    /**
+     * @return the element as a double, possibly losing precision
+     * @throws IllegalStateException if the element is not a number
+     */
+    public double getDouble(int index) {
+        if (!packed) return number(index).getValue();
+        Objects.checkIndex(index, size);
+        return doubles == null ? longs[index] : doubles[index];
+    }
+
+    /**
+     * @return the elements as doubles, straight from the packed array if the elements are packed
+     * @throws IllegalStateException if an element is not a number
+     */
+    public DoubleStream doubles() {
+        if (!packed) return super.getArray().stream().mapToDouble(value -> number(value).getValue());
+        if (doubles == null) return longs == null ? DoubleStream.empty() : LongStream.of(longs).limit(size).asDoubleStream();
+        return Arrays.stream(doubles, 0, size);
+    }
+
+    /**
+     * @return a copy of the elements as doubles
+     * @throws IllegalStateException if an element is not a number
+     */
+    public double[] toDoubleArray() {
+        if (packed && doubles != null) return Arrays.copyOf(doubles, size);
+        return doubles().toArray();
+    }
+
+    private NumberValue number(int index) {
+        return number(super.getArray().get(index));
+    }
+
+    private static NumberValue number(Value value) {
+        if (value instanceof NumberValue number) return number;
+        throw new IllegalStateException("not a number: " + value);
+    }
+
+    /**
+     * @return whether the value could be packed
+     */
+    private boolean pack(Value value) {
+        if (!(value instanceof NumberValue number)) return false;
+        return switch (number.getNumber()) {
+            case Long l -> pack(l.longValue());
+            case Double d -> pack(d.doubleValue());
+            default -> false;
+        };
+    }
+
+    private boolean pack(long value) {
+        if (doubles == null) {
+            if (longs == null) longs = new long[INITIAL_CAPACITY];
+            else if (size == longs.length) longs = Arrays.copyOf(longs, size * 2);
+            longs[size++] = value;
+            return true;
+        }
+        if (value < -MAX_EXACT || value > MAX_EXACT) return false;
+        return pack((double) value);
+    }
+
+    private boolean pack(double value) {
+        if (doubles == null) {
+            // the longs so far become doubles, if they all fit
+            double[] converted = new double[longs == null ? INITIAL_CAPACITY : Math.max(longs.length, INITIAL_CAPACITY)];
+            for (int i = 0; i < size; i++) {
+                if (longs[i] < -MAX_EXACT || longs[i] > MAX_EXACT) return false;
+                converted[i] = longs[i];
+            }
+            doubles = converted;
+            longs = null;
+        }
+        if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+        doubles[size++] = value;
+        return true;
+    }
+
+    private Value element(int index) {
+        if (doubles == null) return new NumberValue(longs[index]);
+        double value = doubles[index];
+        if (value == Math.rint(value) && value >= -MAX_EXACT && value <= MAX_EXACT) return new NumberValue((long) value);
+        return new NumberValue(value);
+    }
+
+    /**
+     * moves the elements to the element list of ArrayValue
+     */
+    private void unpack() {
+        List<Value> array = super.getArray();
+        for (int i = 0; i < size; i++) {
+            array.add(element(i));
+        }
+        packed = false;
+        longs = null;
+        doubles = null;
+        size = 0;
+    }
+
+    /**
+     * the elements as a List, reading the packed array or the element list of ArrayValue
+     */
+    private class View extends AbstractList<Value> implements RandomAccess {
+        @Override
+        public Value get(int index) {
+            if (!packed) return PackedArrayValue.super.getArray().get(index);
+            Objects.checkIndex(index, size);
+            return element(index);
+        }
+
+        @Override
+        public int size() {
+            return packed ? size : PackedArrayValue.super.getArray().size();
+        }
+
+        @Override
+        public void add(int index, Value value) {
+            modCount++;
+            if (packed && index == size && pack(value)) return;
+            if (packed) unpack();
+            PackedArrayValue.super.getArray().add(index, value);
+        }
+
+        @Override
+        public Value set(int index, Value value) {
+            if (packed) unpack();
+            return PackedArrayValue.super.getArray().set(index, value);
+        }
+
+        @Override
+        public Value remove(int index) {
+            modCount++;
+            if (packed) unpack();
+            return PackedArrayValue.super.getArray().remove(index);
+        }
+
+        @Override
+        public void clear() {
+            modCount++;
+            if (packed) {
+                size = 0;
+                doubles = null;
+            } else {
+                PackedArrayValue.super.getArray().clear();
+            }
+        }
+    }
+}
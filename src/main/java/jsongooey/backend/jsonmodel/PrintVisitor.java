@@ -7,13 +7,27 @@ package jsongooey.backend.jsonmodel;
 public class PrintVisitor implements ValueVisitor<String> {
     private int indent;
     private final String indentString;
+    private final boolean compact;
 
     public PrintVisitor(String indentString) {
         this.indentString = indentString;
+        this.compact = false;
     }
 
     public PrintVisitor() {
-        this.indentString = "  ";
+        this("  ");
+    }
+
+    private PrintVisitor(boolean compact) {
+        this.indentString = "";
+        this.compact = compact;
+    }
+
+    /**
+     * @return a PrintVisitor that prints on a single line, without any whitespace, like NDJSON records need
+     */
+    public static PrintVisitor compact() {
+        return new PrintVisitor(true);
     }
 
 
@@ -22,15 +36,56 @@ public class PrintVisitor implements ValueVisitor<String> {
         return String.valueOf(boolValue.getValue());
     }
 
+    /**
+     * longs and BigDecimals are printed as they are, integral doubles without the trailing .0
+     */
     @Override
     public String visit(NumberValue numberValue) {
-        double number = numberValue.getValue();
-        return (number % 1 == 0) ? String.valueOf((int) number) : String.valueOf(number);
+        if (numberValue.getNumber() instanceof Double number) {
+            boolean integral = number == Math.rint(number) && Math.abs(number) < 1e15;
+            return integral ? String.valueOf(number.longValue()) : String.valueOf(number);
+        }
+        return numberValue.getNumber().toString();
     }
 
     @Override
     public String visit(StringValue stringValue) {
-        return String.valueOf( "\"" + stringValue.getValue() + "\"");
+        return quote(stringValue.getValue());
+    }
+
+    /**
+     * wraps a string in quotes, escaping the characters json does not allow raw in a string
+     * @param string the string to quote
+     * @return json string literal
+     */
+    public static String quote(String string) {
+        int i = 0;
+        while (i < string.length() && !needsEscape(string.charAt(i))) i++;
+        if (i == string.length()) return "\"" + string + "\"";
+
+        StringBuilder quoted = new StringBuilder(string.length() + 8);
+        quoted.append('"').append(string, 0, i);
+        for (; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\b' -> quoted.append("\\b");
+                case '\f' -> quoted.append("\\f");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+                    else quoted.append(c);
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\';
     }
 
     @Override
@@ -40,45 +95,79 @@ public class PrintVisitor implements ValueVisitor<String> {
 
     @Override
     public String visit(ObjectValue objectValue) {
-        StringBuilder buffer = new StringBuilder();
-        buffer.append("{\n");
-        indent++;
-
-        var members = objectValue.getMembers();
-        for (var entry : members.entrySet()) {
-            buffer.append("\t".repeat(indent));
-            buffer.append(String.format("\"%s\": %s,\n", entry.getKey(), entry.getValue().accept(this)));
-        }
-
-        if (!members.isEmpty()) {
-            buffer.deleteCharAt(buffer.length() - 2);
-        }
-
-        indent--;
-        buffer.append("\t".repeat(indent));
-        buffer.append("}");
-
-        return buffer.toString();
+        return print(objectValue);
     }
 
     @Override
     public String visit(ArrayValue arrayValue) {
-        StringBuilder buffer = new StringBuilder();
-        buffer.append("[\n");
-        indent++;
-        for (var value : arrayValue.getArray()) {
-            buffer.append("\t".repeat(indent));
-            buffer.append(String.format("%s,\n", value.accept(this)));
-        }
-
-        if (!arrayValue.getArray().isEmpty()) {
-            buffer.deleteCharAt(buffer.length() - 2);
-        }
-
-        indent--;
-        buffer.append("\t".repeat(indent));
-        buffer.append("]");
+        return print(arrayValue);
+    }
 
+    /**
+     * prints a container with ValueWalker instead of recursing into accept(), so deep trees do not overflow the stack
+     */
+    private String print(Value container) {
+        StringBuilder buffer = new StringBuilder();
+        int outer = indent;
+
+        ValueWalker.walk(container, new ValueWalker.Listener() {
+            @Override
+            public void startObject(ObjectValue object) {
+                buffer.append(compact ? "{" : "{\n");
+                indent++;
+            }
+
+            @Override
+            public void endObject(ObjectValue object) {
+                close(object.getMembers().isEmpty(), "}");
+            }
+
+            @Override
+            public void startArray(ArrayValue array) {
+                buffer.append(compact ? "[" : "[\n");
+                indent++;
+            }
+
+            @Override
+            public void endArray(ArrayValue array) {
+                close(array.getArray().isEmpty(), "]");
+            }
+
+            @Override
+            public void member(String key) {
+                indent();
+                buffer.append(quote(key)).append(compact ? ":" : ": ");
+            }
+
+            @Override
+            public void element(int index) {
+                indent();
+            }
+
+            @Override
+            public void scalar(Value value) {
+                buffer.append(value.accept(PrintVisitor.this));
+                endChild();
+            }
+
+            private void close(boolean empty, String bracket) {
+                // drop the comma after the last child
+                if (!empty) buffer.deleteCharAt(buffer.length() - (compact ? 1 : 2));
+
+                indent--;
+                indent();
+                buffer.append(bracket);
+                endChild();
+            }
+
+            private void endChild() {
+                if (indent > outer) buffer.append(compact ? "," : ",\n");
+            }
+
+            private void indent() {
+                if (!compact) buffer.append("\t".repeat(indent));
+            }
+        });
 
         return buffer.toString();
     }
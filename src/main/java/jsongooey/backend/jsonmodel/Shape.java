@@ -0,0 +1,106 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the ordered keys of a ShapedObjectValue, shared by every object that has the same keys in the same order,
+ * like the hidden classes of javascript engines. shapes form a tree: adding a key to an object moves it
+ * from its shape to the child shape for that key, which is made once and then reused.
+ * <p>
+ * a parser starts the shapes of a document at root(), so objects of the same document share them,
+ * and they go away with the document. keys are found by linear probing in a small open addressing table.
+ * safe to share between threads, only the transitions change after a shape is made
+ */
+public final class Shape {
+    /**
+     * objects with more members than this are not shaped, their key sets are rarely shared
+     */
+    public static final int MAX_KEYS = 64;
+    // a shape with this many children is used as a dictionary, its objects are not shaped
+    private static final int MAX_TRANSITIONS = 32;
+
+    private final String[] keys;
+    // index of the key in keys, plus one, by linear probing from its hash. 0 is an empty slot
+    private final byte[] table;
+    private final Shape parent;
+    private Map<String, Shape> transitions;
+    // size of the biggest shape made below this one while the way down had no branches, a sizing hint for objects
+    private int deepest;
+
+    private Shape(String[] keys, Shape parent) {
+        this.keys = keys;
+        this.parent = parent;
+        this.deepest = keys.length;
+
+        table = new byte[Math.max(Integer.highestOneBit(keys.length * 2 + 1) << 1, 4)];
+        for (int i = 0; i < keys.length; i++) {
+            int slot = keys[i].hashCode() & (table.length - 1);
+            while (table[slot] != 0) slot = (slot + 1) & (table.length - 1);
+            table[slot] = (byte) (i + 1);
+        }
+    }
+
+    /**
+     * @return a new empty shape, the root of the shapes of a document
+     */
+    public static Shape root() {
+        return new Shape(new String[0], null);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    String key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the index of the key, -1 if the shape does not have it
+     */
+    int indexOf(Object key) {
+        if (!(key instanceof String)) return -1;
+        int slot = key.hashCode() & (table.length - 1);
+        while (table[slot] != 0) {
+            int index = table[slot] - 1;
+            if (keys[index].equals(key)) return index;
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the size that objects passing through this shape will likely end up with. only a hint,
+     * objects may stop at any shape on the way
+     */
+    int deepest() {
+        return deepest;
+    }
+
+    /**
+     * @param key a key the shape does not have
+     * @return the shape with the key added at the end, null if objects should not be shaped any more
+     */
+    synchronized Shape add(String key) {
+        if (keys.length == MAX_KEYS) return null;
+        if (transitions == null) transitions = new HashMap<>(4);
+
+        Shape child = transitions.get(key);
+        if (child != null) return child;
+        if (transitions.size() == MAX_TRANSITIONS) return null;
+
+        String[] childKeys = Arrays.copyOf(keys, keys.length + 1);
+        childKeys[keys.length] = key;
+        child = new Shape(childKeys, this);
+        transitions.put(key, child);
+
+        // past a branch the objects go different ways, the shapes above it keep what they had
+        for (Shape ancestor = this; ancestor != null && ancestor.transitions.size() == 1 && ancestor.deepest < child.size();
+             ancestor = ancestor.parent) {
+            ancestor.deepest = child.size();
+        }
+        return child;
+    }
+}
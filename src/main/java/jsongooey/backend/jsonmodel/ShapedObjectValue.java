@@ -0,0 +1,237 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * ObjectValue that keeps its keys in a Shape shared with every object of the same keys, and only its values
+ * in a flat array, instead of a LinkedHashMap entry per member. the parsers build every object as one,
+ * so a document of many records with the same keys holds the keys once.
+ * <p>
+ * getMembers() is a Map view with the semantics of the LinkedHashMap of ObjectValue: members are in insertion order,
+ * putting an existing key replaces its value in place. removing a member, or growing past Shape.MAX_KEYS,
+ * moves the members to the LinkedHashMap of ObjectValue for good
+ */
+public class ShapedObjectValue extends ObjectValue {
+    private static final Value[] NO_VALUES = {};
+
+    // null once the members moved to the map of ObjectValue
+    private Shape shape;
+    private Value[] values = NO_VALUES;
+
+    /**
+     * @param root root of the shapes of the document, see Shape.root()
+     */
+    public ShapedObjectValue(Shape root) {
+        this.shape = root;
+    }
+
+    /**
+     * @return the shape of the members, null if they moved to the map of ObjectValue
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return number of values the object has room for without growing
+     */
+    int capacity() {
+        return values.length;
+    }
+
+    @Override
+    public Map<String, Value> getMembers() {
+        if (shape == null) return super.getMembers();
+        return isFrozen() ? Collections.unmodifiableMap(new Members()) : new Members();
+    }
+
+    private Value put(String key, Value value) {
+        int index = shape.indexOf(key);
+        if (index >= 0) {
+            Value previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        Shape next = key == null ? null : shape.add(key);
+        if (next == null) {
+            unshape();
+            return super.getMembers().put(key, value);
+        }
+
+        int size = shape.size();
+        if (values.length == size) {
+            // grow geometrically, but no further than objects with these keys went so far: records of a few
+            // members get arrays that fit, and a wide object next to them costs them at most the doubling
+            int capacity = Math.min(Math.max(size * 2, 4), next.deepest());
+            values = Arrays.copyOf(values, capacity);
+        }
+        values[size] = value;
+        shape = next;
+        return null;
+    }
+
+    /**
+     * moves the members to the map of ObjectValue
+     */
+    private void unshape() {
+        Map<String, Value> members = super.getMembers();
+        for (int i = 0; i < shape.size(); i++) {
+            members.put(shape.key(i), values[i]);
+        }
+        shape = null;
+        values = NO_VALUES;
+    }
+
+    /**
+     * the members as a Map, reading the shape and the values
+     */
+    private class Members extends AbstractMap<String, Value> {
+        @Override
+        public int size() {
+            return shape == null ? ShapedObjectValue.super.getMembers().size() : shape.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (shape == null) return ShapedObjectValue.super.getMembers().containsKey(key);
+            return shape.indexOf(key) >= 0;
+        }
+
+        @Override
+        public Value get(Object key) {
+            if (shape == null) return ShapedObjectValue.super.getMembers().get(key);
+            int index = shape.indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public Value put(String key, Value value) {
+            if (shape == null) return ShapedObjectValue.super.getMembers().put(key, value);
+            return ShapedObjectValue.this.put(key, value);
+        }
+
+        @Override
+        public Value remove(Object key) {
+            if (shape != null) {
+                if (shape.indexOf(key) < 0) return null;
+                unshape();
+            }
+            return ShapedObjectValue.super.getMembers().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            if (shape != null) unshape();
+            ShapedObjectValue.super.getMembers().clear();
+        }
+
+        @Override
+        public Set<Entry<String, Value>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return Members.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Value>> iterator() {
+                    if (shape == null) return ShapedObjectValue.super.getMembers().entrySet().iterator();
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, Value>> {
+        private int next = 0;
+        // after a remove(), the members are in the map and this iterates over it
+        private Iterator<Map.Entry<String, Value>> delegate;
+
+        @Override
+        public boolean hasNext() {
+            if (delegate != null) return delegate.hasNext();
+            return shape != null ? next < shape.size() : next < ShapedObjectValue.super.getMembers().size();
+        }
+
+        @Override
+        public Map.Entry<String, Value> next() {
+            if (delegate != null) return delegate.next();
+            if (shape == null) {
+                // unshaped by a change through the map, continue on the map from the same position
+                moveToMap(next);
+                return delegate.next();
+            }
+            if (next >= shape.size()) throw new NoSuchElementException();
+            return new Member(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (delegate == null) {
+                if (next == 0) throw new IllegalStateException();
+                if (shape != null) unshape();
+                moveToMap(next - 1);
+                delegate.next();
+            }
+            delegate.remove();
+        }
+
+        private void moveToMap(int position) {
+            delegate = ShapedObjectValue.super.getMembers().entrySet().iterator();
+            for (int i = 0; i < position; i++) delegate.next();
+        }
+    }
+
+    /**
+     * a member of a shaped object, writes through to the values
+     */
+    private class Member implements Map.Entry<String, Value> {
+        private final int index;
+        private final String key;
+
+        Member(int index) {
+            this.index = index;
+            this.key = shape.key(index);
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Value getValue() {
+            return shape != null ? values[index] : ShapedObjectValue.super.getMembers().get(key);
+        }
+
+        @Override
+        public Value setValue(Value value) {
+            return getMembers().put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Map.Entry<?, ?> entry
+                    && key.equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
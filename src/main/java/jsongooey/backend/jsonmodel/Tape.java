@@ -0,0 +1,439 @@
+package jsongooey.backend.jsonmodel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * compact read only document: every value is one long on a tape, in document order, and the characters
+ * of strings are in one shared buffer. an entry holds its type in the top 8 bits and a 56 bit payload:
+ * <ul>
+ *     <li>object and array starts: the index of their end entry in the low 32 bits,
+ *     and the number of children in the next 24 bits (saturated)</li>
+ *     <li>object and array ends: the index of their start entry</li>
+ *     <li>strings and BigDecimals: the offset of the characters in the string buffer, which starts with the length</li>
+ *     <li>longs and doubles: nothing, the bits of the number are the next entry</li>
+ * </ul>
+ * object members are a string entry for the key followed by the value.
+ * a value is addressed by the index of its entry, the document is the value at index 0.
+ * skipping a value, however big, is one lookup of its end, see next()
+ */
+public final class Tape {
+    public enum Type { OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL }
+
+    private static final long START_OBJECT = '{';
+    private static final long END_OBJECT = '}';
+    private static final long START_ARRAY = '[';
+    private static final long END_ARRAY = ']';
+    private static final long STRING = '"';
+    private static final long LONG = 'l';
+    private static final long DOUBLE = 'd';
+    private static final long DECIMAL = 'D';
+    private static final long TRUE = 't';
+    private static final long FALSE = 'f';
+    private static final long NULL = 'n';
+
+    private static final long PAYLOAD = (1L << 56) - 1;
+    private static final long END = 0xFFFF_FFFFL;
+    private static final int MAX_COUNT = 0xFF_FFFF;
+
+    private final long[] tape;
+    private final char[] strings;
+
+    private Tape(long[] tape, char[] strings) {
+        this.tape = tape;
+        this.strings = strings;
+    }
+
+    /**
+     * writes a Value tree to a tape, walking it without recursion
+     */
+    public static Tape of(Value value) {
+        Writer writer = new Writer();
+        ValueWalker.walk(value, new ValueWalker.Listener() {
+            @Override
+            public void startObject(ObjectValue object) {
+                writer.startObject();
+            }
+
+            @Override
+            public void endObject(ObjectValue object) {
+                writer.endObject();
+            }
+
+            @Override
+            public void startArray(ArrayValue array) {
+                writer.startArray();
+            }
+
+            @Override
+            public void endArray(ArrayValue array) {
+                writer.endArray();
+            }
+
+            @Override
+            public void member(String key) {
+                writer.key(key);
+            }
+
+            @Override
+            public void element(int index) {}
+
+            @Override
+            public void scalar(Value scalar) {
+                switch (scalar) {
+                    case StringValue string -> writer.stringValue(string.getValue());
+                    case NumberValue number -> writer.numberValue(number.getNumber());
+                    case BooleanValue bool -> writer.booleanValue(bool.getValue());
+                    default -> writer.nullValue();
+                }
+            }
+        });
+        return writer.getTape();
+    }
+
+    /**
+     * @return number of entries on the tape
+     */
+    public int length() {
+        return tape.length;
+    }
+
+    /**
+     * @return bytes held by the tape and the string buffer, without the object headers
+     */
+    public long sizeInBytes() {
+        return 8L * tape.length + 2L * strings.length;
+    }
+
+    public Type type(int index) {
+        return switch ((int) (tape[index] >>> 56)) {
+            case '{' -> Type.OBJECT;
+            case '[' -> Type.ARRAY;
+            case '"' -> Type.STRING;
+            case 'l', 'd', 'D' -> Type.NUMBER;
+            case 't', 'f' -> Type.BOOLEAN;
+            case 'n' -> Type.NULL;
+            default -> throw new IllegalArgumentException("no value at " + index);
+        };
+    }
+
+    /**
+     * @param index a value
+     * @return index of the entry after the value, for containers after everything nested in them
+     */
+    public int next(int index) {
+        return switch ((int) (tape[index] >>> 56)) {
+            case '{', '[' -> (int) (tape[index] & END) + 1;
+            case 'l', 'd' -> index + 2;
+            default -> index + 1;
+        };
+    }
+
+    /**
+     * @param index an object or array
+     * @return number of members or elements
+     */
+    public int size(int index) {
+        checkContainer(index);
+        int count = (int) ((tape[index] >>> 32) & MAX_COUNT);
+        if (count < MAX_COUNT) return count;
+
+        count = 0;
+        for (var children = children(index); children.hasNext(); children.nextInt()) count++;
+        return count;
+    }
+
+    /**
+     * iterates over the values of an object's members or an array's elements
+     * @param index an object or array
+     * @return indexes of the values, use getKey() for the key of a member
+     */
+    public PrimitiveIterator.OfInt children(int index) {
+        checkContainer(index);
+        boolean object = tape[index] >>> 56 == START_OBJECT;
+        int end = (int) (tape[index] & END);
+
+        return new PrimitiveIterator.OfInt() {
+            private int next = object ? index + 2 : index + 1;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int child = next;
+                next = Tape.this.next(child) + (object ? 1 : 0);
+                return child;
+            }
+        };
+    }
+
+    /**
+     * @param index the value of an object member
+     * @return the key of the member
+     */
+    public String getKey(int index) {
+        return getString(index - 1);
+    }
+
+    /**
+     * @param index an object
+     * @param key member key
+     * @return index of the value of the last member with the key, like ObjectValue keeps the last duplicate, -1 if there is none
+     */
+    public int get(int index, String key) {
+        if (tape[index] >>> 56 != START_OBJECT) throw new IllegalArgumentException("not an object at " + index);
+        int found = -1;
+        for (var children = children(index); children.hasNext(); ) {
+            int child = children.nextInt();
+            if (stringEquals(child - 1, key)) found = child;
+        }
+        return found;
+    }
+
+    /**
+     * @param index an array
+     * @param element position of the element
+     * @return index of the element, -1 if the array is shorter
+     */
+    public int get(int index, int element) {
+        if (tape[index] >>> 56 != START_ARRAY) throw new IllegalArgumentException("not an array at " + index);
+        var children = children(index);
+        for (int i = 0; children.hasNext(); i++) {
+            int child = children.nextInt();
+            if (i == element) return child;
+        }
+        return -1;
+    }
+
+    public String getString(int index) {
+        if (tape[index] >>> 56 != STRING) throw new IllegalArgumentException("not a string at " + index);
+        return string(index);
+    }
+
+    /**
+     * @return a Long, Double or BigDecimal, like NumberValue.getNumber()
+     */
+    public Number getNumber(int index) {
+        return switch ((int) (tape[index] >>> 56)) {
+            case 'l' -> tape[index + 1];
+            case 'd' -> Double.longBitsToDouble(tape[index + 1]);
+            case 'D' -> new BigDecimal(string(index));
+            default -> throw new IllegalArgumentException("not a number at " + index);
+        };
+    }
+
+    public long getLong(int index) {
+        return getNumber(index).longValue();
+    }
+
+    public double getDouble(int index) {
+        return getNumber(index).doubleValue();
+    }
+
+    public boolean getBoolean(int index) {
+        long type = tape[index] >>> 56;
+        if (type != TRUE && type != FALSE) throw new IllegalArgumentException("not a boolean at " + index);
+        return type == TRUE;
+    }
+
+    /**
+     * @return the whole document as a Value tree
+     */
+    public Value toValue() {
+        return toValue(0);
+    }
+
+    /**
+     * builds a Value tree of one value on the tape, without recursion
+     * @param index the value
+     */
+    public Value toValue(int index) {
+        int end = next(index);
+        Value root = null;
+        Shape shapes = Shape.root();
+        List<Value> containers = new ArrayList<>();
+        String key = null;
+
+        for (int i = index; i < end; i = tape[i] >>> 56 == LONG || tape[i] >>> 56 == DOUBLE ? i + 2 : i + 1) {
+            long type = tape[i] >>> 56;
+            if (type == END_OBJECT || type == END_ARRAY) {
+                containers.removeLast();
+                continue;
+            }
+            if (type == STRING && key == null && !containers.isEmpty() && containers.getLast() instanceof ObjectValue) {
+                key = string(i);
+                continue;
+            }
+
+            Value value = switch ((int) type) {
+                case '{' -> new ShapedObjectValue(shapes);
+                case '[' -> new PackedArrayValue();
+                case '"' -> new StringValue(string(i));
+                case 't' -> BooleanValue.TRUE;
+                case 'f' -> BooleanValue.FALSE;
+                case 'n' -> NullValue.NULL;
+                default -> new NumberValue(getNumber(i));
+            };
+
+            if (containers.isEmpty()) root = value;
+            else if (containers.getLast() instanceof ObjectValue object) object.addMember(key, value);
+            else ((ArrayValue) containers.getLast()).addValue(value);
+            key = null;
+
+            if (type == START_OBJECT || type == START_ARRAY) containers.add(value);
+        }
+        return root;
+    }
+
+    private void checkContainer(int index) {
+        long type = tape[index] >>> 56;
+        if (type != START_OBJECT && type != START_ARRAY) throw new IllegalArgumentException("not a container at " + index);
+    }
+
+    private String string(int index) {
+        int offset = (int) (tape[index] & PAYLOAD);
+        int length = strings[offset] << 16 | strings[offset + 1];
+        return new String(strings, offset + 2, length);
+    }
+
+    private boolean stringEquals(int index, String string) {
+        int offset = (int) (tape[index] & PAYLOAD);
+        int length = strings[offset] << 16 | strings[offset + 1];
+        if (length != string.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (strings[offset + 2 + i] != string.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * writes one value to a tape from events in document order, the same events a JsonHandler gets
+     */
+    public static final class Writer {
+        private long[] tape = new long[64];
+        private int length = 0;
+        private char[] strings = new char[256];
+        private int stringsLength = 0;
+
+        // open containers, start index and number of children so far
+        private int[] open = new int[16];
+        private int[] counts = new int[16];
+        private int depth = 0;
+
+        public void startObject() {
+            start(START_OBJECT);
+        }
+
+        public void endObject() {
+            end(END_OBJECT);
+        }
+
+        public void startArray() {
+            start(START_ARRAY);
+        }
+
+        public void endArray() {
+            end(END_ARRAY);
+        }
+
+        public void key(String key) {
+            append(STRING, string(key));
+        }
+
+        public void stringValue(String value) {
+            counted();
+            append(STRING, string(value));
+        }
+
+        /**
+         * @param value a Long, Double or BigDecimal, other types are converted like NumberValue does
+         */
+        public void numberValue(Number value) {
+            counted();
+            switch (new NumberValue(value).getNumber()) {
+                case Long l -> {
+                    append(LONG, 0);
+                    append(l);
+                }
+                case Double d -> {
+                    append(DOUBLE, 0);
+                    append(Double.doubleToRawLongBits(d));
+                }
+                case Number decimal -> append(DECIMAL, string(decimal.toString()));
+            }
+        }
+
+        public void booleanValue(boolean value) {
+            counted();
+            append(value ? TRUE : FALSE, 0);
+        }
+
+        public void nullValue() {
+            counted();
+            append(NULL, 0);
+        }
+
+        /**
+         * @return the tape of the written value
+         * @throws IllegalStateException if a container is still open or nothing was written
+         */
+        public Tape getTape() {
+            if (depth > 0 || length == 0) throw new IllegalStateException("tape is not a complete value");
+            return new Tape(Arrays.copyOf(tape, length), Arrays.copyOf(strings, stringsLength));
+        }
+
+        private void start(long type) {
+            counted();
+            if (depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+                counts = Arrays.copyOf(counts, depth * 2);
+            }
+            open[depth] = length;
+            counts[depth++] = 0;
+            append(type, 0);
+        }
+
+        private void end(long type) {
+            int start = open[--depth];
+            long count = Math.min(counts[depth], MAX_COUNT);
+            tape[start] |= count << 32 | length;
+            append(type, start);
+        }
+
+        private void counted() {
+            if (depth > 0) counts[depth - 1]++;
+        }
+
+        private void append(long type, long payload) {
+            append(type << 56 | payload);
+        }
+
+        private void append(long entry) {
+            if (length == tape.length) tape = Arrays.copyOf(tape, length * 2);
+            tape[length++] = entry;
+        }
+
+        /**
+         * @return offset of the string in the buffer
+         */
+        private long string(String string) {
+            int needed = stringsLength + 2 + string.length();
+            if (needed > strings.length) strings = Arrays.copyOf(strings, Math.max(needed, strings.length * 2));
+
+            int offset = stringsLength;
+            strings[offset] = (char) (string.length() >>> 16);
+            strings[offset + 1] = (char) string.length();
+            string.getChars(0, string.length(), strings, offset + 2);
+            stringsLength = needed;
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package jsongooey.backend.jsonmodel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * depth first traversal of a Value tree without recursion.
+ * the open containers are kept on a heap allocated stack, so the depth of the tree is only limited by memory,
+ * unlike a ValueVisitor that calls accept() on the children
+ */
+public final class ValueWalker {
+
+    /**
+     * receives the events of a traversal in document order
+     */
+    public interface Listener {
+        void startObject(ObjectValue object);
+
+        void endObject(ObjectValue object);
+
+        void startArray(ArrayValue array);
+
+        void endArray(ArrayValue array);
+
+        /**
+         * called before the value of each object member
+         */
+        void member(String key);
+
+        /**
+         * called before each array element
+         */
+        void element(int index);
+
+        /**
+         * called for strings, numbers, booleans and nulls
+         */
+        void scalar(Value value);
+    }
+
+    /**
+     * an open container and the position in its children
+     */
+    private static final class Frame {
+        final Value container;
+        final Iterator<?> children;
+        int index = 0;
+        // key of the last member, for objects
+        String key;
+        // what hash() has summed up of the children so far
+        int hash;
+        // the container equal() compares this one to, its members or its elements
+        Map<String, Value> otherMembers;
+        Iterator<Value> otherElements;
+
+        Frame(Value container, Iterator<?> children) {
+            this.container = container;
+            this.children = children;
+        }
+
+        /**
+         * @return the next child, its key is kept for objects
+         */
+        Value nextChild() {
+            index++;
+            Object child = children.next();
+            if (!(child instanceof Map.Entry<?, ?> entry)) return (Value) child;
+            key = (String) entry.getKey();
+            return (Value) entry.getValue();
+        }
+    }
+
+    private ValueWalker() {}
+
+    /**
+     * freezes every container of the tree, children before their parents, so a container is only frozen
+     * once it is decoded and everything in it is frozen. frozen containers are not walked into,
+     * their children are frozen already, so a subtree shared by a Deduplicator is not walked once per reference
+     */
+    static void freeze(Value root) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Value next = root;
+
+        while (true) {
+            switch (next) {
+                case ObjectValue object when !object.isFrozen() ->
+                        stack.push(new Frame(object, object.getMembers().values().iterator()));
+                case ArrayValue array when !array.isFrozen() ->
+                        stack.push(new Frame(array, array.getArray().iterator()));
+                case null, default -> {}
+            }
+            next = null;
+
+            Frame frame = stack.peek();
+            if (frame == null) return;
+
+            if (frame.children.hasNext()) {
+                next = (Value) frame.children.next();
+                continue;
+            }
+            stack.pop();
+            if (frame.container instanceof ObjectValue object) object.markFrozen();
+            else ((ArrayValue) frame.container).markFrozen();
+        }
+    }
+
+    /**
+     * the hash Map.hashCode() and List.hashCode() give for the members and elements, children before their parents.
+     * frozen containers are not walked into, they cached their hash
+     */
+    static int hash(Value root) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Value next = root;
+
+        while (true) {
+            switch (next) {
+                case ObjectValue object when !object.isFrozen() ->
+                        stack.push(new Frame(object, object.getMembers().entrySet().iterator()));
+                case ArrayValue array when !array.isFrozen() -> {
+                    Frame frame = new Frame(array, array.getArray().iterator());
+                    frame.hash = 1;
+                    stack.push(frame);
+                }
+                case null, default -> {
+                    Frame frame = stack.peek();
+                    if (frame == null) return Objects.hashCode(next);
+                    combine(frame, Objects.hashCode(next));
+                }
+            }
+
+            while (true) {
+                Frame frame = stack.peek();
+                if (frame.children.hasNext()) {
+                    next = frame.nextChild();
+                    break;
+                }
+                stack.pop();
+                Frame parent = stack.peek();
+                if (parent == null) return frame.hash;
+                combine(parent, frame.hash);
+            }
+        }
+    }
+
+    private static void combine(Frame frame, int childHash) {
+        if (frame.container instanceof ObjectValue) frame.hash += Objects.hashCode(frame.key) ^ childHash;
+        else frame.hash = 31 * frame.hash + childHash;
+    }
+
+    /**
+     * compares two trees as Map.equals() and List.equals() would: members in any order, elements in order.
+     * frozen containers with different hashes are told apart without walking them
+     */
+    static boolean equal(Value root, Value otherRoot) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Value next = root;
+        Value other = otherRoot;
+
+        while (true) {
+            if (next != other) {
+                switch (next) {
+                    case ObjectValue object -> {
+                        if (!(other instanceof ObjectValue others)) return false;
+                        if (object.isFrozen() && others.isFrozen() && object.hashCode() != others.hashCode()) return false;
+                        Map<String, Value> members = object.getMembers();
+                        Frame frame = new Frame(object, members.entrySet().iterator());
+                        frame.otherMembers = others.getMembers();
+                        if (members.size() != frame.otherMembers.size()) return false;
+                        stack.push(frame);
+                    }
+                    case ArrayValue array -> {
+                        if (!(other instanceof ArrayValue others)) return false;
+                        if (array.isFrozen() && others.isFrozen() && array.hashCode() != others.hashCode()) return false;
+                        List<Value> elements = array.getArray();
+                        List<Value> otherElements = others.getArray();
+                        if (elements.size() != otherElements.size()) return false;
+                        Frame frame = new Frame(array, elements.iterator());
+                        frame.otherElements = otherElements.iterator();
+                        stack.push(frame);
+                    }
+                    case null -> {
+                        return false;
+                    }
+                    default -> {
+                        if (!next.equals(other)) return false;
+                    }
+                }
+            }
+
+            while (true) {
+                Frame frame = stack.peek();
+                if (frame == null) return true;
+                if (frame.children.hasNext()) {
+                    next = frame.nextChild();
+                    if (frame.otherElements != null) {
+                        other = frame.otherElements.next();
+                    } else {
+                        other = frame.otherMembers.get(frame.key);
+                        if (other == null && !frame.otherMembers.containsKey(frame.key)) return false;
+                    }
+                    break;
+                }
+                stack.pop();
+            }
+        }
+    }
+
+    /**
+     * the text of toString(): objects as {key: value, key: value }, arrays as List.toString() prints them
+     */
+    static String print(Value root) {
+        StringBuilder out = new StringBuilder();
+        Deque<Frame> stack = new ArrayDeque<>();
+        Value next = root;
+
+        while (true) {
+            switch (next) {
+                case ObjectValue object -> {
+                    out.append('{');
+                    stack.push(new Frame(object, object.getMembers().entrySet().iterator()));
+                }
+                case ArrayValue array -> {
+                    out.append('[');
+                    stack.push(new Frame(array, array.getArray().iterator()));
+                }
+                case null, default -> out.append(next);
+            }
+
+            while (true) {
+                Frame frame = stack.peek();
+                if (frame == null) return out.toString();
+                boolean object = frame.container instanceof ObjectValue;
+                if (frame.children.hasNext()) {
+                    if (frame.index > 0) out.append(", ");
+                    next = frame.nextChild();
+                    if (object) out.append(frame.key).append(": ");
+                    break;
+                }
+                stack.pop();
+                // the separator after the last member always left its space behind
+                if (object) out.append(frame.index > 0 ? " }" : "}");
+                else out.append(']');
+            }
+        }
+    }
+
+    /**
+     * walks the tree rooted at root
+     * @param root the value to start at
+     * @param listener receives the events
+     */
+    public static void walk(Value root, Listener listener) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Value next = root;
+
+        while (true) {
+            if (next != null) {
+                switch (next) {
+                    case ObjectValue object -> {
+                        listener.startObject(object);
+                        stack.push(new Frame(object, object.getMembers().entrySet().iterator()));
+                    }
+                    case ArrayValue array -> {
+                        listener.startArray(array);
+                        stack.push(new Frame(array, array.getArray().iterator()));
+                    }
+                    default -> listener.scalar(next);
+                }
+                next = null;
+            }
+
+            Frame frame = stack.peek();
+            if (frame == null) return;
+
+            if (!frame.children.hasNext()) {
+                stack.pop();
+                if (frame.container instanceof ObjectValue object) listener.endObject(object);
+                else listener.endArray((ArrayValue) frame.container);
+                continue;
+            }
+
+            Object child = frame.children.next();
+            if (child instanceof Map.Entry<?, ?> entry) {
+                listener.member((String) entry.getKey());
+                next = (Value) entry.getValue();
+            } else {
+                listener.element(frame.index);
+                next = (Value) child;
+            }
+            frame.index++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package jsongooey.backend.lexer;
+
+import java.util.Arrays;
+
+/**
+ * bounded cache of decoded member keys, looked up by the characters of the literal in the source.
+ * a key that is already cached is returned without decoding or allocating anything,
+ * so documents that repeat the same keys share one String per key. works the same for short string values.
+ * <p>
+ * direct mapped: a key goes to one slot chosen by its hash and replaces whatever was there,
+ * so the cache never grows past its capacity. it starts with a few slots and doubles them while half are used,
+ * so a cache made for a small document stays small. keys with escape sequences are decoded and not cached.
+ * not thread safe
+ */
+public final class KeyCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    // longer keys are rarely repeated, and hashing them costs more than decoding
+    public static final int DEFAULT_MAX_LENGTH = 64;
+    private static final int INITIAL_SLOTS = 16;
+
+    private String[] keys;
+    private int mask;
+    // slots holding a key
+    private int used = 0;
+    private final int capacity;
+    private final int maxLength;
+
+    /**
+     * @param capacity maximum number of slots, rounded up to a power of two
+     * @param maxLength longest string that is cached, longer ones are decoded every time
+     */
+    public KeyCache(int capacity, int maxLength) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        int slots = 1;
+        while (slots < capacity) slots <<= 1;
+        this.capacity = slots;
+        keys = new String[Math.min(slots, INITIAL_SLOTS)];
+        mask = keys.length - 1;
+        this.maxLength = maxLength;
+    }
+
+    public KeyCache(int capacity) {
+        this(capacity, DEFAULT_MAX_LENGTH);
+    }
+
+    public KeyCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param tokens token buffer
+     * @param index index of a STRING token
+     * @return the decoded string
+     */
+    public String get(TokenBuffer tokens, int index) {
+        int start = tokens.start(index);
+        return get(tokens.getSource(), start + 1, start + tokens.length(index) - 1);
+    }
+
+    /**
+     * @param source the source containing the string literal
+     * @param start offset of the first character after the opening quote
+     * @param end offset of the closing quote
+     * @return the decoded string, the cached instance if there is one
+     */
+    public String get(CharSequence source, int start, int end) {
+        int length = end - start;
+        if (length > maxLength) return StringDecoder.decode(source, start, end);
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '\\') return StringDecoder.decode(source, start, end);
+            hash = 31 * hash + c;
+        }
+
+        // the String hash of the key, spread so that similar keys use different slots
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String cached = keys[slot];
+        if (cached != null && cached.length() == length && cached.hashCode() == hash && matches(cached, source, start)) {
+            return cached;
+        }
+
+        String key = source.subSequence(start, end).toString();
+        if (cached == null && ++used * 2 > keys.length && keys.length < capacity) {
+            grow();
+            slot = (hash ^ (hash >>> 16)) & mask;
+            if (keys[slot] == null) used++;
+        }
+        keys[slot] = key;
+        return key;
+    }
+
+    /**
+     * empties the cache, keeping its slots
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        used = 0;
+    }
+
+    /**
+     * @return number of slots, it grows up to the capacity
+     */
+    public int slots() {
+        return keys.length;
+    }
+
+    /**
+     * doubles the slots, the cached keys move to their slot in the new table
+     */
+    private void grow() {
+        String[] old = keys;
+        keys = new String[old.length * 2];
+        mask = keys.length - 1;
+        used = 0;
+        for (String key : old) {
+            if (key == null) continue;
+            int hash = key.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            if (keys[slot] == null) used++;
+            keys[slot] = key;
+        }
+    }
+
+    private static boolean matches(String cached, CharSequence source, int start) {
+        if (source instanceof String string) return string.regionMatches(start, cached, 0, cached.length());
+        for (int i = 0; i < cached.length(); i++) {
+            if (cached.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
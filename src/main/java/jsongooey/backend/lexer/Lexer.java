@@ -8,57 +8,154 @@ import static jsongooey.backend.lexer.TokenType.*;
 
 /**
  * constructed with the source json code as a String.
- * after calling lexTokens() fills tokens object and adds lexical errors to errors list
+ * after calling lexTokens() fills the token buffer and adds lexical errors to errors list
+ * <p>
+ * it is also a TokenSource: next() lexes just the next token, so a parser can consume tokens as they are lexed
+ * without a token buffer. use either lexTokens() or next() on one Lexer, not both
+ * <p>
+ * when the jdk.incubator.vector module is present, lexTokens() first tries the vectorized lexer
+ * (VectorStructuralScanner and StructuralIndex). it falls back to this scalar lexer for input with
+ * lexical errors, so errors are always reported the same way.
+ * the vectorized lexer can be switched off with setVectorized(false) or the jsongooey.lexer.vector system property
  */
-public class Lexer {
-    private final String source;
-    private List<Token> tokens = new ArrayList<>();
+public class Lexer implements TokenSource {
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private String source;
+    private int rangeStart;
+    private int rangeEnd;
+    private int rangeLine;
+    private boolean vectorized = VECTOR_AVAILABLE && Boolean.parseBoolean(System.getProperty("jsongooey.lexer.vector", "true"));
+    // made by lexTokens() or getTokenBuffer(), a lexer used as a TokenSource never needs one
+    private TokenBuffer tokens;
     private int start = 0;
     private int current = 0;
     private int line = 1;
 
-    private List<LexerError> errors = new ArrayList<>();
+    // current token of next()
+    private TokenType type;
+    private int tokenStart;
+    private int tokenLength;
+    private int tokenLine;
+
+    private final List<LexerError> errors = new ArrayList<>();
 
     public Lexer(String source) {
+        this(source, 0, source.length(), 1);
+    }
+
+    /**
+     * lexes only part of the source, used by ParallelLexer. offsets of the tokens are offsets in the whole source
+     * @param source the whole source
+     * @param start offset to start lexing at, must not be inside a string literal
+     * @param end offset to stop lexing at
+     * @param line line number at start
+     */
+    Lexer(String source, int start, int end, int line) {
         this.source = source;
+        this.rangeStart = start;
+        this.rangeEnd = end;
+        this.rangeLine = line;
+        this.start = start;
+        this.current = start;
+        this.line = line;
     }
 
+    /**
+     * makes the lexer lex another source, keeping its token buffer and error list,
+     * so a pooled lexer lexes small sources without allocating them again.
+     * the token buffer and the errors of the previous source are cleared
+     * @param source the new source
+     */
+    public void reset(String source) {
+        this.source = source;
+        this.rangeStart = 0;
+        this.rangeEnd = source.length();
+        this.rangeLine = 1;
+        this.start = 0;
+        this.current = 0;
+        this.line = 1;
+        this.type = null;
+        errors.clear();
+        if (tokens != null) tokens.reset(source);
+    }
+
+    /**
+     * @return read only Token view of the token buffer
+     */
     public List<Token> getTokens() {
-        return Collections.unmodifiableList(tokens);
+        return getTokenBuffer().asList();
+    }
+
+    public TokenBuffer getTokenBuffer() {
+        // roughly one token every few characters in typical json
+        if (tokens == null) tokens = new TokenBuffer(source, (rangeEnd - rangeStart) / 4);
+        return tokens;
+    }
+
+    /**
+     * @return whether lexTokens() tries the vectorized lexer first
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * switches between the vectorized and the scalar lexer. has no effect if the vector module is missing
+     * @param vectorized whether lexTokens() should try the vectorized lexer first
+     */
+    public void setVectorized(boolean vectorized) {
+        this.vectorized = vectorized && VECTOR_AVAILABLE;
     }
 
+    @Override
     public List<LexerError> getErrors() {
         return Collections.unmodifiableList(errors);
     }
 
-    private void addToken(Token token) {
-        tokens.add(token);
+    @Override
+    public TokenType getType() {
+        return type;
+    }
+
+    @Override
+    public String getLexeme() {
+        if (type == null) return null;
+        return source.substring(tokenStart, tokenStart + tokenLength);
+    }
+
+    @Override
+    public Object getLiteral() {
+        if (type == null) return null;
+        return Token.decodeLiteral(type, source, tokenStart, tokenStart + tokenLength);
+    }
+
+    @Override
+    public int getLine() {
+        return tokenLine;
+    }
+
+    @Override
+    public Token getToken() {
+        return new Token(type, source, tokenStart, tokenStart + tokenLength, tokenLine);
     }
 
     /**
-     * wrapper function that adds the non-literal tokens just by specifying the type
+     * makes the token outlined by the start and current pointers the current token
      * @param type
      */
     private void addToken(TokenType type) {
-        switch (type) {
-            case OPEN_BRACE ->  addToken(new Token(OPEN_BRACE, "{", null, line));
-            case CLOSE_BRACE -> addToken(new Token(CLOSE_BRACE, "}", null, line));
-            case OPEN_SQUARE_BRACKET -> addToken(new Token(OPEN_SQUARE_BRACKET, "[", null, line));
-            case CLOSE_SQUARE_BRACKET -> addToken(new Token(CLOSE_SQUARE_BRACKET, "]", null, line));
-            case COLON -> addToken(new Token(COLON, ":", null, line));
-            case COMMA -> addToken(new Token(COMMA, ",", null, line));
-            case TRUE -> addToken(new Token(TRUE, "true", true, line));
-            case FALSE -> addToken(new Token(FALSE, "false", false, line));
-            case NULL -> addToken(new Token(NULL, "null", null, line));
-            default -> throw new IllegalArgumentException("Unexpected token type: " + type);
-        }
+        this.type = type;
+        this.tokenStart = start;
+        this.tokenLength = current - start;
+        this.tokenLine = line;
     }
 
     /**
      * @return whether the current pointer is at the end of the source code
      */
     private boolean isAtEnd() {
-        return current >= source.length();
+        return current >= rangeEnd;
     }
 
     /**
@@ -101,20 +198,16 @@ public class Lexer {
         return true;
     }
 
-    /**
-     * @return the current lexeme outlined by the start and current pointers
-     */
-    private String lexeme() {
-        return source.substring(start, current);
-    }
-
     /**
      * lexes a string literal
-     * @throws LexerErrorException if the string was unterminated
+     * @throws LexerErrorException if the string was unterminated or has an invalid escape sequence
      */
     private void string() {
         while (! (isAtEnd() || peek() == '"') ) {
-            if (peek() == '\\') advance();
+            if (match('\\')) {
+                escape();
+                continue;
+            }
             if (peek() == '\n') line++;
             advance();
         }
@@ -126,8 +219,30 @@ public class Lexer {
 
         advance(); // closing "
 
-        String lexeme = lexeme();
-        addToken(new Token(STRING, lexeme, lexeme.substring(1, lexeme.length() - 1), line));
+        addToken(STRING);
+    }
+
+    /**
+     * validates the escape sequence after a backslash, the backslash is already consumed.
+     * leaves a backslash at the end of the input to the unterminated string check
+     * @throws LexerErrorException if the escape sequence is invalid
+     */
+    private void escape() throws LexerErrorException {
+        if (isAtEnd()) return;
+        if (!StringDecoder.isEscapeCharacter(peek())) {
+            report("invalid escape sequence");
+            return;
+        }
+
+        if (advance() == 'u') {
+            for (int i = 0; i < 4; i++) {
+                if (!StringDecoder.isHexDigit(peek())) {
+                    report("invalid unicode escape sequence");
+                    return;
+                }
+                advance();
+            }
+        }
     }
 
     private boolean isDigit(char c) {
@@ -201,8 +316,7 @@ public class Lexer {
             return;
         }
 
-        String lexeme = lexeme();
-        addToken(new Token(NUMBER, lexeme, Double.parseDouble(lexeme), line));
+        addToken(NUMBER);
 
     }
 
@@ -249,11 +363,43 @@ public class Lexer {
      * lexes the given string
      */
     public void lexTokens() {
-        while (!isAtEnd()) {
+        TokenBuffer buffer = getTokenBuffer();
+        if (vectorized && lexVectorized()) return;
+
+        while (next() != EOF) {
+            buffer.add(type, tokenStart, tokenLength, tokenLine);
+        }
+        buffer.add(EOF, tokenStart, 0, tokenLine);
+    }
+
+    /**
+     * lexes the next token with the scalar lexer, skipping whitespace and lines with lexical errors
+     * @return the type of the new current token, EOF once the source is exhausted
+     */
+    @Override
+    public TokenType next() {
+        type = null;
+        while (type == null && !isAtEnd()) {
             start = current;
             lexToken();
         }
-        addToken(new Token(EOF, "",null, line));
+        if (type == null) {
+            start = current;
+            addToken(EOF);
+        }
+        return type;
+    }
+
+    /**
+     * lexes with the structural index built by VectorStructuralScanner
+     * @return whether the whole source was lexed. if not, the token buffer is left empty for the scalar lexer
+     */
+    private boolean lexVectorized() {
+        StructuralIndex index = VectorStructuralScanner.scan(source, rangeStart, rangeEnd, rangeLine);
+        if (index.toTokens(source, tokens)) return true;
+
+        tokens.reset(source);
+        return false;
     }
 
     /**
@@ -0,0 +1,143 @@
+package jsongooey.backend.lexer;
+
+import java.math.BigDecimal;
+
+/**
+ * decodes a number lexeme in a single pass over its characters, picking the representation that is exact:
+ * <p>
+ * integers that fit are returned as Long, without touching floating point at all
+ * <p>
+ * decimals with at most 15 significant digits are returned as Double. those always survive the round trip
+ * through a double, and when the decimal exponent is small the double is computed directly from the digits
+ * with a single exact multiplication or division, otherwise Double.parseDouble does the correctly rounded conversion
+ * <p>
+ * everything else (big integers, long or out of range decimals) is returned as BigDecimal
+ * <p>
+ * expects a lexeme that was already validated by a lexer
+ */
+public final class NumberScanner {
+    /**
+     * a double holds every 15 digit decimal exactly enough to round trip
+     */
+    private static final int MAX_DOUBLE_DIGITS = 15;
+
+    /**
+     * a long can accumulate 18 digits without overflowing
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * powers of ten that are exact doubles
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberScanner() {}
+
+    /**
+     * decodes the whole char sequence
+     */
+    public static Number scan(CharSequence lexeme) {
+        return scan(lexeme, 0, lexeme.length());
+    }
+
+    /**
+     * decodes a number lexeme
+     * @param source the source containing the lexeme
+     * @param start offset of the first character of the lexeme
+     * @param end offset after the last character of the lexeme
+     * @return Long, Double or BigDecimal, whichever holds the number exactly
+     */
+    public static Number scan(CharSequence source, int start, int end) {
+        int i = start;
+        boolean negative = source.charAt(i) == '-';
+        if (negative) i++;
+
+        long mantissa = 0;          // significant digits without trailing zeros
+        int digits = 0;             // number of digits in mantissa
+        int pendingZeros = 0;       // zeros seen after the last non zero digit
+        int fractionDigits = 0;
+        boolean decimal = false;
+
+        // integer and fractional part
+        for (; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '.') {
+                decimal = true;
+                continue;
+            }
+            if (c < '0' || c > '9') break;
+
+            if (decimal) fractionDigits++;
+
+            if (c == '0') {
+                if (digits > 0) pendingZeros++;
+                continue;
+            }
+
+            digits += pendingZeros + 1;
+            if (digits <= MAX_LONG_DIGITS) {
+                for (; pendingZeros > 0; pendingZeros--) mantissa *= 10;
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            pendingZeros = 0;
+        }
+
+        // exponent part
+        int exponent = 0;
+        if (i < end) {
+            decimal = true;
+            i++; // e or E
+            boolean negativeExponent = source.charAt(i) == '-';
+            if (negativeExponent || source.charAt(i) == '+') i++;
+
+            for (; i < end; i++) {
+                // clamp huge exponents, they are out of range for a double anyway
+                if (exponent < 100_000_000) exponent = exponent * 10 + (source.charAt(i) - '0');
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+
+        if (digits > MAX_LONG_DIGITS) return big(source, start, end, decimal);
+
+        // value is mantissa * 10^scale
+        int scale = exponent - fractionDigits + pendingZeros;
+
+        if (!decimal) {
+            // pending zeros of an integer still fit a long if there are few enough
+            if (digits + pendingZeros <= MAX_LONG_DIGITS) {
+                for (; pendingZeros > 0; pendingZeros--) mantissa *= 10;
+                return negative ? -mantissa : mantissa;
+            }
+            return big(source, start, end, false);
+        }
+
+        if (digits > MAX_DOUBLE_DIGITS) return big(source, start, end, true);
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            value = Double.parseDouble(source.subSequence(start, end).toString());
+            if (Double.isInfinite(value) || value == 0.0) return big(source, start, end, true);
+            return value;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * slow path for numbers with too many digits for the fast paths
+     * @return Long for integers that still fit a long (19 digits), else BigDecimal
+     */
+    private static Number big(CharSequence source, int start, int end, boolean decimal) {
+        BigDecimal value = new BigDecimal(source.subSequence(start, end).toString());
+        if (!decimal && value.unscaledValue().bitLength() < Long.SIZE) return value.longValue();
+        return value;
+    }
+}
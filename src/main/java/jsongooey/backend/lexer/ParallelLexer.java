@@ -0,0 +1,206 @@
+package jsongooey.backend.lexer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * lexes a big source on several threads by splitting it into chunks.
+ * <p>
+ * a chunk can only be lexed on its own if it is known whether it starts inside a string literal. so first every
+ * chunk counts its unescaped quotes in parallel, and the in-string state at each chunk start is the parity of the
+ * quotes before it. chunk boundaries are never put right after a backslash, so no escape crosses a boundary.
+ * then every boundary is moved forward to the next structural character outside a string, where a token starts
+ * for sure, lines are counted per chunk, and the chunks are lexed in parallel and concatenated.
+ * <p>
+ * if any chunk finds a lexical error the whole source is lexed again by a single Lexer,
+ * so errors are reported exactly like Lexer reports them
+ */
+public class ParallelLexer {
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+
+    private final String source;
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+
+    private TokenBuffer tokens;
+    private List<LexerError> errors = new ArrayList<>();
+
+    public ParallelLexer(String source, ForkJoinPool pool, int minChunkSize) {
+        this.source = source;
+        this.pool = pool;
+        this.minChunkSize = Math.max(minChunkSize, 1);
+    }
+
+    public ParallelLexer(String source) {
+        this(source, ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    public TokenBuffer getTokenBuffer() {
+        return tokens;
+    }
+
+    public List<LexerError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * lexes the source, in parallel if it is big enough
+     */
+    public void lexTokens() {
+        int[] bounds = settleBounds(nominalBounds());
+        if (bounds.length <= 2) {
+            lexSequentially();
+            return;
+        }
+
+        int chunks = bounds.length - 1;
+
+        int[] newlines = new int[chunks];
+        invokeAll(chunks, i -> newlines[i] = countNewlines(bounds[i], bounds[i + 1]));
+
+        Lexer[] lexers = new Lexer[chunks];
+        int line = 1;
+        for (int i = 0; i < chunks; i++) {
+            lexers[i] = new Lexer(source, bounds[i], bounds[i + 1], line);
+            line += newlines[i];
+        }
+        invokeAll(chunks, i -> lexers[i].lexTokens());
+
+        int size = 1;
+        for (Lexer lexer : lexers) {
+            if (!lexer.getErrors().isEmpty()) {
+                lexSequentially();
+                return;
+            }
+            size += lexer.getTokenBuffer().size() - 1;
+        }
+
+        // every chunk ends with an EOF token, only the last one is kept
+        tokens = new TokenBuffer(source, size);
+        for (int i = 0; i < chunks; i++) {
+            TokenBuffer chunk = lexers[i].getTokenBuffer();
+            tokens.addAll(chunk, 0, i == chunks - 1 ? chunk.size() : chunk.size() - 1);
+        }
+    }
+
+    private void lexSequentially() {
+        Lexer lexer = new Lexer(source);
+        lexer.lexTokens();
+        tokens = lexer.getTokenBuffer();
+        errors = new ArrayList<>(lexer.getErrors());
+    }
+
+    /**
+     * splits the source into evenly sized chunks, moving every boundary so it does not follow a backslash
+     * @return offsets of the chunk boundaries, starting with 0 and ending with the source length
+     */
+    private int[] nominalBounds() {
+        int length = source.length();
+        int chunks = (int) Math.min(pool.getParallelism() * 4L, length / minChunkSize);
+        if (chunks <= 1) return new int[] {0, length};
+
+        int[] bounds = new int[chunks + 1];
+        for (int i = 1; i < chunks; i++) {
+            int bound = (int) ((long) length * i / chunks);
+            while (bound < length && source.charAt(bound - 1) == '\\') bound++;
+            bounds[i] = Math.max(bound, bounds[i - 1]);
+        }
+        bounds[chunks] = length;
+        return bounds;
+    }
+
+    /**
+     * finds out whether each boundary is inside a string, then moves it to the next structural character
+     * outside a string. boundaries that can not be moved before the next one are dropped
+     * @param nominal boundaries from nominalBounds()
+     * @return boundaries where a token starts
+     */
+    private int[] settleBounds(int[] nominal) {
+        int chunks = nominal.length - 1;
+        if (chunks <= 1) return nominal;
+
+        boolean[] oddQuotes = new boolean[chunks];
+        invokeAll(chunks, i -> oddQuotes[i] = hasOddQuotes(nominal[i], nominal[i + 1]));
+
+        List<Integer> settled = new ArrayList<>();
+        settled.add(0);
+        boolean inString = false;
+        for (int i = 1; i < chunks; i++) {
+            inString ^= oddQuotes[i - 1];
+            int bound = nextStructural(nominal[i], nominal[i + 1], inString);
+            if (bound >= 0) settled.add(bound);
+        }
+        settled.add(source.length());
+
+        return settled.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return whether the range has an odd number of unescaped quotes
+     */
+    private boolean hasOddQuotes(int from, int to) {
+        boolean odd = false;
+        boolean escaped = false;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (escaped) escaped = false;
+            else if (c == '\\') escaped = true;
+            else if (c == '"') odd = !odd;
+        }
+        return odd;
+    }
+
+    /**
+     * @param inString whether from is inside a string literal
+     * @return offset of the first structural character outside a string in the range, -1 if there is none
+     */
+    private int nextStructural(int from, int to, boolean inString) {
+        boolean escaped = false;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') inString = false;
+            } else {
+                switch (c) {
+                    case '{', '}', '[', ']', ':', ',' -> {
+                        return i;
+                    }
+                    case '"' -> inString = true;
+                    default -> {}
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int countNewlines(int from, int to) {
+        int newlines = 0;
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == '\n') newlines++;
+        }
+        return newlines;
+    }
+
+    private interface ChunkTask {
+        void run(int chunk);
+    }
+
+    /**
+     * runs a task for every chunk on the pool and waits for all of them
+     */
+    private void invokeAll(int chunks, ChunkTask task) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int chunk = i;
+            tasks.add(pool.submit(() -> task.run(chunk)));
+        }
+        for (ForkJoinTask<?> submitted : tasks) {
+            submitted.join();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package jsongooey.backend.lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * lexes json pulled from a Reader or a ReadableByteChannel through a fixed size buffer.
+ * tokens are handed out on demand by next(), so only the current token is kept in memory, never the whole input.
+ * the only thing that grows with the input is the lexeme of a single string or number literal.
+ * lexical errors are handled the same way as in Lexer: the error is added to errors and the rest of the line is skipped
+ */
+public class StreamingLexer implements TokenSource, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean drained = false;
+
+    private int line = 1;
+
+    // current token
+    private TokenType type;
+    private int tokenLine;
+    private final StringBuilder literalLexeme = new StringBuilder();
+
+    private List<LexerError> errors = new ArrayList<>();
+
+    public StreamingLexer(Reader reader, int bufferSize) {
+        if (bufferSize < 1) throw new IllegalArgumentException("buffer size must be positive: " + bufferSize);
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * reads the channel as UTF-8
+     */
+    public StreamingLexer(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public List<LexerError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public TokenType getType() {
+        return type;
+    }
+
+    @Override
+    public int getLine() {
+        return tokenLine;
+    }
+
+    @Override
+    public String getLexeme() {
+        if (type == null) return null;
+        return switch (type) {
+            case OPEN_BRACE -> "{";
+            case CLOSE_BRACE -> "}";
+            case OPEN_SQUARE_BRACKET -> "[";
+            case CLOSE_SQUARE_BRACKET -> "]";
+            case COLON -> ":";
+            case COMMA -> ",";
+            case TRUE -> "true";
+            case FALSE -> "false";
+            case NULL -> "null";
+            case STRING, NUMBER -> literalLexeme.toString();
+            case EOF -> "";
+        };
+    }
+
+    @Override
+    public Object getLiteral() {
+        if (type == null) return null;
+        return Token.decodeLiteral(type, literalLexeme, 0, literalLexeme.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * refills the buffer if every buffered character was consumed
+     * @return whether there is a character left to consume
+     */
+    private boolean fill() {
+        if (position < limit) return true;
+        if (drained) return false;
+
+        try {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+
+            if (read < 0) {
+                drained = true;
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether the whole input was consumed
+     */
+    private boolean isAtEnd() {
+        return !fill();
+    }
+
+    /**
+     * consumes the next character
+     * @return the character consumed
+     */
+    private char advance() {
+        if (isAtEnd()) return '\0';
+        return buffer[position++];
+    }
+
+    /**
+     * @return the next character
+     */
+    private char peek() {
+        if (isAtEnd()) return '\0';
+        return buffer[position];
+    }
+
+    /**
+     * consumes the next character only if it is the expected character
+     * @param expected
+     * @return whether the next token was consumed
+     */
+    private boolean match(char expected) {
+        boolean matches = peek() == expected;
+        if (matches) advance();
+        return matches;
+    }
+
+    /**
+     * consumes the next sequence of characters only if they match a string
+     * @param expected
+     * @return whether the whole string was consumed
+     */
+    private boolean match(String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (!match(expected.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * consumes the next character as part of the current literal
+     */
+    private char take() {
+        char c = advance();
+        literalLexeme.append(c);
+        return c;
+    }
+
+    private void setToken(TokenType type) {
+        this.type = type;
+        this.tokenLine = line;
+    }
+
+    /**
+     * lexes a string literal, the opening quote is already taken
+     * @throws LexerErrorException if the string was unterminated or has an invalid escape sequence
+     */
+    private void string() {
+        while (! (isAtEnd() || peek() == '"') ) {
+            if (peek() == '\\') {
+                take();
+                escape();
+                continue;
+            }
+            if (peek() == '\n') line++;
+            take();
+        }
+
+        if (isAtEnd()) {
+            report("unterminated string");
+            return;
+        }
+
+        take(); // closing "
+        setToken(STRING);
+    }
+
+    /**
+     * validates the escape sequence after a backslash, the backslash is already consumed.
+     * leaves a backslash at the end of the input to the unterminated string check
+     * @throws LexerErrorException if the escape sequence is invalid
+     */
+    private void escape() throws LexerErrorException {
+        if (isAtEnd()) return;
+        if (!StringDecoder.isEscapeCharacter(peek())) {
+            report("invalid escape sequence");
+            return;
+        }
+
+        if (take() == 'u') {
+            for (int i = 0; i < 4; i++) {
+                if (!StringDecoder.isHexDigit(peek())) {
+                    report("invalid unicode escape sequence");
+                    return;
+                }
+                take();
+            }
+        }
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void matchDigits() {
+        while (isDigit(peek())) take();
+    }
+
+    private void matchAtLeastOneDigit() throws LexerErrorException {
+        if (!isDigit(peek())) {
+            report("at least one digit was expected");
+            return;
+        }
+        matchDigits();
+    }
+
+    private void exponent() throws LexerErrorException {
+        if (peek() == '+' || peek() == '-') take();
+        matchAtLeastOneDigit();
+    }
+
+    private void matchFractionalAndExponent() throws LexerErrorException {
+        if (peek() == '.') {
+            take();
+            matchAtLeastOneDigit();
+        }
+
+        if (peek() == 'e' || peek() == 'E') {
+            take();
+            exponent();
+        }
+    }
+
+    /**
+     * lexes a number, the first character is already taken
+     */
+    private void number(char currentChar) throws LexerErrorException {
+        if (currentChar == '-') currentChar = take();
+
+        if (currentChar == '0') {
+            matchFractionalAndExponent();
+        }
+
+        else if (currentChar >= '1' && currentChar <= '9') {
+            matchDigits();
+            matchFractionalAndExponent();
+        }
+
+        else {
+            report("invalid starting character for number");
+            return;
+        }
+
+        setToken(NUMBER);
+    }
+
+    private void keyword(String rest, TokenType type, String errorMessage) throws LexerErrorException {
+        if (!match(rest)) {
+            report(errorMessage);
+            return;
+        }
+        setToken(type);
+    }
+
+    /**
+     * lexes until a token is found or the input is exhausted
+     * @return the type of the token found
+     */
+    @Override
+    public TokenType next() {
+        type = null;
+        while (type == null) {
+            if (isAtEnd()) {
+                setToken(EOF);
+                break;
+            }
+            lexToken();
+        }
+        return type;
+    }
+
+    /**
+     * lexes a single token, or skips a single whitespace character
+     * handles a lexical error by skipping the current line to find more
+     */
+    private void lexToken() {
+        literalLexeme.setLength(0);
+        char c = advance();
+
+        try {
+
+            switch (c) {
+                case '{' -> setToken(OPEN_BRACE);
+                case '}' -> setToken(CLOSE_BRACE);
+                case '[' -> setToken(OPEN_SQUARE_BRACKET);
+                case ']' -> setToken(CLOSE_SQUARE_BRACKET);
+                case ':' -> setToken(COLON);
+                case ',' -> setToken(COMMA);
+                case '"' -> {
+                    literalLexeme.append(c);
+                    string();
+                }
+                case 't' -> keyword("rue", TRUE, "invalid true keyword");
+                case 'f' -> keyword("alse", FALSE, "invalid false keyword");
+                case 'n' -> keyword("ull", NULL, "invalid null keyword");
+                case '\t', '\r', ' ' -> {/* skip whitespace */}
+                case '\n' -> line++;
+
+                default -> {
+                    if (c == '-' || isDigit(c)) {
+                        literalLexeme.append(c);
+                        number(c);
+                    } else {
+                        report("unexpected character: " + c);
+                    }
+                }
+
+            }
+        } catch (LexerErrorException _) {
+            type = null;
+            while (!isAtEnd() && advance() != '\n')/* skip line if error found */;
+            line++;
+        }
+
+    }
+
+    /**
+     * adds a LexerError to errors and throws
+     * @param message
+     * @throws LexerErrorException
+     */
+    private void report(String message) throws LexerErrorException {
+        errors.add(new LexerError(message, line));
+        throw new LexerErrorException();
+    }
+}
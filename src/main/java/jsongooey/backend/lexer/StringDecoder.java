@@ -0,0 +1,85 @@
+package jsongooey.backend.lexer;
+
+/**
+ * decodes the escape sequences of a string literal.
+ * most strings have no escapes at all, those are found with a single indexOf and copied out in bulk.
+ * only strings that contain a backslash pay for a StringBuilder.
+ * expects escapes that were already validated by a lexer
+ */
+public final class StringDecoder {
+
+    private StringDecoder() {}
+
+    /**
+     * @param source the source containing the string literal
+     * @param start offset of the first character after the opening quote
+     * @param end offset of the closing quote
+     * @return the decoded string
+     */
+    public static String decode(CharSequence source, int start, int end) {
+        int backslash = indexOfBackslash(source, start, end);
+        if (backslash < 0) return source.subSequence(start, end).toString();
+
+        StringBuilder decoded = new StringBuilder(end - start);
+        int from = start;
+        while (backslash >= 0) {
+            decoded.append(source, from, backslash);
+            from = unescape(source, backslash + 1, decoded);
+            backslash = indexOfBackslash(source, from, end);
+        }
+        decoded.append(source, from, end);
+
+        return decoded.toString();
+    }
+
+    /**
+     * @return whether the character can follow a backslash in a string literal
+     */
+    static boolean isEscapeCharacter(int c) {
+        return switch (c) {
+            case '"', '\\', '/', 'b', 'f', 'n', 'r', 't', 'u' -> true;
+            default -> false;
+        };
+    }
+
+    static boolean isHexDigit(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static int indexOfBackslash(CharSequence source, int from, int end) {
+        if (source instanceof String string) {
+            return string.indexOf('\\', from, end);
+        }
+        for (int i = from; i < end; i++) {
+            if (source.charAt(i) == '\\') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * appends the character of a single escape sequence. surrogate pairs need no special handling,
+     * the two \\u escapes decode to the two halves of the pair
+     * @param at offset of the character after the backslash
+     * @return offset after the escape sequence
+     */
+    private static int unescape(CharSequence source, int at, StringBuilder decoded) {
+        char c = source.charAt(at);
+        switch (c) {
+            case 'b' -> decoded.append('\b');
+            case 'f' -> decoded.append('\f');
+            case 'n' -> decoded.append('\n');
+            case 'r' -> decoded.append('\r');
+            case 't' -> decoded.append('\t');
+            case 'u' -> {
+                int code = 0;
+                for (int i = at + 1; i < at + 5; i++) {
+                    code = (code << 4) | Character.digit(source.charAt(i), 16);
+                }
+                decoded.append((char) code);
+                return at + 5;
+            }
+            default -> decoded.append(c); // '"', '\\' and '/'
+        }
+        return at + 1;
+    }
+}
@@ -0,0 +1,166 @@
+package jsongooey.backend.lexer;
+
+import java.util.Arrays;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * offsets of the structural characters, quotes and scalar starts of a source, with the line of each,
+ * as found by stage 1 (VectorStructuralScanner).
+ * toTokens() is stage 2, it turns the index into tokens
+ */
+class StructuralIndex {
+    private final int end;
+    private int[] positions;
+    private int[] lines;
+    private int size = 0;
+    private int endLine = 1;
+
+    /**
+     * @param end offset the indexed range ends at
+     * @param capacity initial capacity
+     */
+    StructuralIndex(int end, int capacity) {
+        this.end = end;
+        capacity = Math.max(capacity, 16);
+        positions = new int[capacity];
+        lines = new int[capacity];
+    }
+
+    void add(int position, int line) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        positions[size] = position;
+        lines[size] = line;
+        size++;
+    }
+
+    void setEndLine(int endLine) {
+        this.endLine = endLine;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * stage 2: adds a token for every entry of the index.
+     * the index is only trusted for valid input, as soon as something is found that the scalar lexer
+     * would report (or lex differently) this gives up, and the caller falls back to the scalar lexer
+     * @param source the source the index was built from
+     * @param tokens buffer to add the tokens to
+     * @return whether the whole source was lexed
+     */
+    boolean toTokens(String source, TokenBuffer tokens) {
+        for (int i = 0; i < size; i++) {
+            int position = positions[i];
+            switch (source.charAt(position)) {
+                case '{' -> tokens.add(OPEN_BRACE, position, 1, lines[i]);
+                case '}' -> tokens.add(CLOSE_BRACE, position, 1, lines[i]);
+                case '[' -> tokens.add(OPEN_SQUARE_BRACKET, position, 1, lines[i]);
+                case ']' -> tokens.add(CLOSE_SQUARE_BRACKET, position, 1, lines[i]);
+                case ':' -> tokens.add(COLON, position, 1, lines[i]);
+                case ',' -> tokens.add(COMMA, position, 1, lines[i]);
+                case '"' -> {
+                    // nothing inside a string is indexed, so the next entry is the closing quote
+                    if (++i == size) return false;
+                    int close = positions[i];
+                    if (!validEscapes(source, position + 1, close)) return false;
+                    tokens.add(STRING, position, close + 1 - position, lines[i]);
+                }
+                default -> {
+                    int scalarEnd = scalarEnd(source, position);
+                    TokenType type = scalarType(source, position, scalarEnd);
+                    if (type == null) return false;
+                    tokens.add(type, position, scalarEnd - position, lines[i]);
+                }
+            }
+        }
+        tokens.add(EOF, end, 0, endLine);
+        return true;
+    }
+
+    /**
+     * @return offset after the run of characters starting at start that are not whitespace, structural or quote
+     */
+    private int scalarEnd(String source, int start) {
+        int scalarEnd = start;
+        while (scalarEnd < end) {
+            switch (source.charAt(scalarEnd)) {
+                case '{', '}', '[', ']', ':', ',', '"', ' ', '\t', '\r', '\n' -> {
+                    return scalarEnd;
+                }
+                default -> scalarEnd++;
+            }
+        }
+        return scalarEnd;
+    }
+
+    /**
+     * @return the type of the scalar if the whole run is exactly one valid token, else null
+     */
+    private static TokenType scalarType(String source, int start, int end) {
+        return switch (source.charAt(start)) {
+            case 't' -> source.startsWith("true", start) && end - start == 4 ? TRUE : null;
+            case 'f' -> source.startsWith("false", start) && end - start == 5 ? FALSE : null;
+            case 'n' -> source.startsWith("null", start) && end - start == 4 ? NULL : null;
+            default -> numberEnd(source, start, end) == end ? NUMBER : null;
+        };
+    }
+
+    /**
+     * @return offset after the number starting at start, or -1 if there is no valid number
+     */
+    private static int numberEnd(String source, int i, int end) {
+        if (i < end && source.charAt(i) == '-') i++;
+        if (i == end) return -1;
+
+        if (source.charAt(i) == '0') i++;
+        else if (isDigit(source.charAt(i))) i = digitsEnd(source, i, end);
+        else return -1;
+
+        if (i < end && source.charAt(i) == '.') {
+            if (++i == end || !isDigit(source.charAt(i))) return -1;
+            i = digitsEnd(source, i, end);
+        }
+
+        if (i < end && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+            if (++i < end && (source.charAt(i) == '+' || source.charAt(i) == '-')) i++;
+            if (i == end || !isDigit(source.charAt(i))) return -1;
+            i = digitsEnd(source, i, end);
+        }
+        return i;
+    }
+
+    private static int digitsEnd(String source, int i, int end) {
+        while (i < end && isDigit(source.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return whether every escape sequence between start and end is valid
+     */
+    private static boolean validEscapes(String source, int start, int end) {
+        int backslash = source.indexOf('\\', start, end);
+        while (backslash >= 0) {
+            int escaped = backslash + 1;
+            if (escaped == end || !StringDecoder.isEscapeCharacter(source.charAt(escaped))) return false;
+
+            int next = escaped + 1;
+            if (source.charAt(escaped) == 'u') {
+                if (escaped + 4 >= end) return false;
+                for (; next <= escaped + 4; next++) {
+                    if (!StringDecoder.isHexDigit(source.charAt(next))) return false;
+                }
+            }
+            backslash = source.indexOf('\\', next, end);
+        }
+        return true;
+    }
+}
@@ -1,29 +1,79 @@
 package jsongooey.backend.lexer;
 
+/**
+ * a token only needs to know where its lexeme is in the source.
+ * the lexeme and the literal are cut out and decoded on the first access and cached,
+ * so literals nobody reads are never allocated
+ */
 public class Token {
     private TokenType type;
 
+    private final CharSequence source;
+    private final int start;
+    private final int end;
 
     private String lexeme;
     private Object literal;
+    private boolean decoded;
     private final int line;
 
     public Token(TokenType type, String lexeme, Object literal, int line) {
         this.type = type;
+        this.source = lexeme;
+        this.start = 0;
+        this.end = lexeme.length();
         this.lexeme = lexeme;
         this.literal = literal;
+        this.decoded = true;
         this.line = line;
     }
 
+    /**
+     * lazy token, nothing is copied out of the source until asked for
+     * @param source the source the token was lexed from
+     * @param start offset of the first character of the lexeme
+     * @param end offset after the last character of the lexeme
+     */
+    public Token(TokenType type, CharSequence source, int start, int end, int line) {
+        this.type = type;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.line = line;
+    }
+
+    /**
+     * decodes the literal of a lexeme
+     * @param type type of the token
+     * @param source source containing the lexeme
+     * @param start offset of the first character of the lexeme
+     * @param end offset after the last character of the lexeme
+     * @return decoded String for strings, Number for numbers (see NumberScanner), Boolean for true and false, else null
+     */
+    static Object decodeLiteral(TokenType type, CharSequence source, int start, int end) {
+        return switch (type) {
+            case STRING -> StringDecoder.decode(source, start + 1, end - 1);
+            case NUMBER -> NumberScanner.scan(source, start, end);
+            case TRUE -> true;
+            case FALSE -> false;
+            default -> null;
+        };
+    }
+
     public TokenType getType() {
         return type;
     }
 
     public String getLexeme() {
+        if (lexeme == null) lexeme = source.subSequence(start, end).toString();
         return lexeme;
     }
 
     public Object getLiteral() {
+        if (!decoded) {
+            literal = decodeLiteral(type, source, start, end);
+            decoded = true;
+        }
         return literal;
     }
 
@@ -33,8 +83,8 @@ public class Token {
 
     @Override
     public String toString() {
-        if (type == TokenType.STRING) return "STRING(" + literal.toString() + ")";
-        if (type == TokenType.NUMBER) return "NUMBER(" + literal.toString() + ")";
+        if (type == TokenType.STRING) return "STRING(" + getLiteral().toString() + ")";
+        if (type == TokenType.NUMBER) return "NUMBER(" + getLiteral().toString() + ")";
         else                          return type.toString();
     }
 }
@@ -0,0 +1,186 @@
+package jsongooey.backend.lexer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * compact token stream, stores tokens as parallel arrays instead of one Token object per token.
+ * a token is an index into the arrays: its type ordinal, start offset and length in the source, and line.
+ * lexemes and literals are cut out of the source only when asked for.
+ * asList() gives a List of Token view for code that still wants objects
+ */
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private CharSequence source;
+    private int[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int size = 0;
+
+    public TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        types = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        lines = new int[capacity];
+    }
+
+    public TokenBuffer(CharSequence source) {
+        this(source, INITIAL_CAPACITY);
+    }
+
+    /**
+     * builds a buffer from Token objects. the source of the buffer is the concatenation of the lexemes
+     * @param tokens tokens to copy
+     * @return buffer holding the same tokens
+     */
+    public static TokenBuffer of(List<Token> tokens) {
+        StringBuilder source = new StringBuilder();
+        int[] starts = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            starts[i] = source.length();
+            source.append(tokens.get(i).getLexeme());
+        }
+
+        TokenBuffer buffer = new TokenBuffer(source.toString(), tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            buffer.add(token.getType(), starts[i], token.getLexeme().length(), token.getLine());
+        }
+        return buffer;
+    }
+
+    /**
+     * appends a token
+     * @param type type of the token
+     * @param start offset of the first character of the lexeme in the source
+     * @param length length of the lexeme
+     * @param line line the token was found on
+     */
+    public void add(TokenType type, int start, int length, int line) {
+        if (size == types.length) grow();
+        types[size] = type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        size++;
+    }
+
+    /**
+     * appends a range of tokens of another buffer over the same source
+     * @param other buffer to copy from
+     * @param from index of the first token to copy
+     * @param to index after the last token to copy
+     */
+    void addAll(TokenBuffer other, int from, int to) {
+        int count = to - from;
+        while (size + count > types.length) grow();
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.starts, from, starts, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        System.arraycopy(other.lines, from, lines, size, count);
+        size += count;
+    }
+
+    /**
+     * empties the buffer for tokens of another source, keeping the arrays
+     * @param source the new source
+     */
+    public void reset(CharSequence source) {
+        this.source = source;
+        size = 0;
+    }
+
+    /**
+     * @return number of tokens the buffer holds before it grows
+     */
+    public int capacity() {
+        return types.length;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[checkIndex(index)]];
+    }
+
+    public int start(int index) {
+        return starts[checkIndex(index)];
+    }
+
+    public int length(int index) {
+        return lengths[checkIndex(index)];
+    }
+
+    public int line(int index) {
+        return lines[checkIndex(index)];
+    }
+
+    public String lexeme(int index) {
+        int start = start(index);
+        return source.subSequence(start, start + lengths[index]).toString();
+    }
+
+    /**
+     * decodes the literal of a token
+     * @param index index of the token
+     * @return String for strings, Number for numbers, Boolean for true and false, else null
+     */
+    public Object literal(int index) {
+        int start = start(index);
+        return Token.decodeLiteral(TYPES[types[index]], source, start, start + lengths[index]);
+    }
+
+    /**
+     * @param index index of the token
+     * @return lazy Token pointing into the source of the buffer
+     */
+    public Token token(int index) {
+        int start = start(index);
+        return new Token(TYPES[types[index]], source, start, start + lengths[index], lines[index]);
+    }
+
+    /**
+     * @return read only List view of the buffer, creating lazy Token objects on access
+     */
+    public List<Token> asList() {
+        return new TokenList();
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    private class TokenList extends AbstractList<Token> implements RandomAccess {
+        @Override
+        public Token get(int index) {
+            return token(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
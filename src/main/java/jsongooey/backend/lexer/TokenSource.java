@@ -0,0 +1,40 @@
+package jsongooey.backend.lexer;
+
+import java.util.List;
+
+/**
+ * hands out tokens one at a time instead of building the whole token list.
+ * next() moves to the next token, the getters describe the current one.
+ * once the input is exhausted next() keeps returning EOF
+ */
+public interface TokenSource {
+    /**
+     * lexes the next token and makes it the current one
+     * @return the type of the new current token
+     */
+    TokenType next();
+
+    /**
+     * @return the type of the current token, null before the first call to next()
+     */
+    TokenType getType();
+
+    String getLexeme();
+
+    Object getLiteral();
+
+    int getLine();
+
+    /**
+     * @return the lexical errors found so far
+     */
+    List<LexerError> getErrors();
+
+    /**
+     * @return the current token as a Token object, its literal is decoded from the lexeme on first access
+     */
+    default Token getToken() {
+        String lexeme = getLexeme();
+        return new Token(getType(), lexeme, 0, lexeme.length(), getLine());
+    }
+}
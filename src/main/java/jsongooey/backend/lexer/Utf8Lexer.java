@@ -0,0 +1,356 @@
+package jsongooey.backend.lexer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * lexes UTF-8 encoded json straight from a MemorySegment, usually a file mapped with FileChannel.map.
+ * the input is never decoded into a String: tokens only remember their byte offsets,
+ * and the lexeme and literal of a token are decoded only when getLexeme() or getLiteral() is called.
+ * produces the same token types, lines and errors as Lexer
+ */
+public class Utf8Lexer implements TokenSource {
+    private final MemorySegment source;
+    private final long length;
+    private long start = 0;
+    private long current = 0;
+    private int line = 1;
+
+    // current token
+    private TokenType type;
+    private long tokenStart;
+    private long tokenEnd;
+    private int tokenLine;
+
+    private List<LexerError> errors = new ArrayList<>();
+
+    public Utf8Lexer(MemorySegment source) {
+        this.source = source;
+        this.length = source.byteSize();
+    }
+
+    /**
+     * lexes the remaining bytes of a buffer, for example a MappedByteBuffer
+     */
+    public Utf8Lexer(ByteBuffer source) {
+        this(MemorySegment.ofBuffer(source));
+    }
+
+    /**
+     * maps a whole file read only. the mapping lives as long as the arena
+     * @param path file to map
+     * @param arena arena controlling the lifetime of the mapping
+     * @return lexer over the mapped file
+     */
+    public static Utf8Lexer map(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Utf8Lexer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        }
+    }
+
+    @Override
+    public List<LexerError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public TokenType getType() {
+        return type;
+    }
+
+    @Override
+    public int getLine() {
+        return tokenLine;
+    }
+
+    /**
+     * @return byte offset of the first byte of the current token
+     */
+    public long getStart() {
+        return tokenStart;
+    }
+
+    /**
+     * @return byte offset after the last byte of the current token
+     */
+    public long getEnd() {
+        return tokenEnd;
+    }
+
+    @Override
+    public String getLexeme() {
+        if (type == null) return null;
+        return decode(tokenStart, tokenEnd);
+    }
+
+    @Override
+    public Object getLiteral() {
+        if (type == null) return null;
+        return switch (type) {
+            case STRING -> {
+                String content = decode(tokenStart + 1, tokenEnd - 1);
+                yield StringDecoder.decode(content, 0, content.length());
+            }
+            case NUMBER -> NumberScanner.scan(decode(tokenStart, tokenEnd));
+            case TRUE -> true;
+            case FALSE -> false;
+            default -> null;
+        };
+    }
+
+    /**
+     * decodes a range of the source as UTF-8
+     */
+    private String decode(long from, long to) {
+        return new String(source.asSlice(from, to - from).toArray(JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    private boolean isAtEnd() {
+        return current >= length;
+    }
+
+    /**
+     * consumes the next byte
+     * @return the byte consumed
+     */
+    private byte advance() {
+        if (isAtEnd()) return 0;
+        return source.get(JAVA_BYTE, current++);
+    }
+
+    /**
+     * @return the next byte
+     */
+    private byte peek() {
+        if (isAtEnd()) return 0;
+        return source.get(JAVA_BYTE, current);
+    }
+
+    private boolean match(char expected) {
+        boolean matches = peek() == expected;
+        if (matches) advance();
+        return matches;
+    }
+
+    private boolean match(String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (!match(expected.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private void setToken(TokenType type) {
+        this.type = type;
+        this.tokenStart = start;
+        this.tokenEnd = current;
+        this.tokenLine = line;
+    }
+
+    /**
+     * scans a string literal. multibyte sequences never contain '"', '\' or '\n' bytes,
+     * so they can be skipped byte by byte without decoding
+     * @throws LexerErrorException if the string was unterminated or has an invalid escape sequence
+     */
+    private void string() {
+        while (! (isAtEnd() || peek() == '"') ) {
+            if (match('\\')) {
+                escape();
+                continue;
+            }
+            if (peek() == '\n') line++;
+            advance();
+        }
+
+        if (isAtEnd()) {
+            report("unterminated string");
+            return;
+        }
+
+        advance(); // closing "
+        setToken(STRING);
+    }
+
+    /**
+     * validates the escape sequence after a backslash, the backslash is already consumed.
+     * leaves a backslash at the end of the input to the unterminated string check
+     * @throws LexerErrorException if the escape sequence is invalid
+     */
+    private void escape() throws LexerErrorException {
+        if (isAtEnd()) return;
+        if (!StringDecoder.isEscapeCharacter(peek())) {
+            report("invalid escape sequence");
+            return;
+        }
+
+        if (advance() == 'u') {
+            for (int i = 0; i < 4; i++) {
+                if (!StringDecoder.isHexDigit(peek())) {
+                    report("invalid unicode escape sequence");
+                    return;
+                }
+                advance();
+            }
+        }
+    }
+
+    private boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void matchDigits() {
+        while (isDigit(peek())) advance();
+    }
+
+    private void matchAtLeastOneDigit() throws LexerErrorException {
+        if (!isDigit(peek())) {
+            report("at least one digit was expected");
+            return;
+        }
+        matchDigits();
+    }
+
+    private void exponent() throws LexerErrorException {
+        boolean sign = match('+') || match('-');
+        matchAtLeastOneDigit();
+    }
+
+    private void matchFractionalAndExponent() throws LexerErrorException {
+        if (match('.')) {
+            matchAtLeastOneDigit();
+        }
+
+        if (match('e') || match('E')) {
+            exponent();
+        }
+    }
+
+    private void number(byte currentByte) throws LexerErrorException {
+        if (currentByte == '-') currentByte = advance();
+
+        if (currentByte == '0') {
+            matchFractionalAndExponent();
+        }
+
+        else if (currentByte >= '1' && currentByte <= '9') {
+            matchDigits();
+            matchFractionalAndExponent();
+        }
+
+        else {
+            report("invalid starting character for number");
+            return;
+        }
+
+        setToken(NUMBER);
+    }
+
+    private void keyword(String rest, TokenType type, String errorMessage) throws LexerErrorException {
+        if (!match(rest)) {
+            report(errorMessage);
+            return;
+        }
+        setToken(type);
+    }
+
+    /**
+     * lexes the whole input and collects the token types, mostly useful for validation
+     * @return the token types, ending with EOF
+     */
+    public List<TokenType> lexTokenTypes() {
+        List<TokenType> types = new ArrayList<>();
+        while (next() != EOF) types.add(type);
+        types.add(EOF);
+        return types;
+    }
+
+    @Override
+    public TokenType next() {
+        type = null;
+        while (type == null) {
+            start = current;
+            if (isAtEnd()) {
+                setToken(EOF);
+                break;
+            }
+            lexToken();
+        }
+        return type;
+    }
+
+    /**
+     * lexes a single token, or skips a single whitespace byte
+     * handles a lexical error by skipping the current line to find more
+     */
+    private void lexToken() {
+        byte c = advance();
+
+        try {
+
+            switch (c) {
+                case '{' -> setToken(OPEN_BRACE);
+                case '}' -> setToken(CLOSE_BRACE);
+                case '[' -> setToken(OPEN_SQUARE_BRACKET);
+                case ']' -> setToken(CLOSE_SQUARE_BRACKET);
+                case ':' -> setToken(COLON);
+                case ',' -> setToken(COMMA);
+                case '"' -> string();
+                case 't' -> keyword("rue", TRUE, "invalid true keyword");
+                case 'f' -> keyword("alse", FALSE, "invalid false keyword");
+                case 'n' -> keyword("ull", NULL, "invalid null keyword");
+                case '-' -> number(c);
+                case '\t', '\r', ' ' -> {/* skip whitespace */}
+                case '\n' -> line++;
+
+                default -> {
+                    if (isDigit(c)) {
+                        number(c);
+                    } else {
+                        report("unexpected character: " + unexpectedCharacter(c));
+                    }
+                }
+
+            }
+        } catch (LexerErrorException _) {
+            type = null;
+            while (!isAtEnd() && advance() != '\n')/* skip line if error found */;
+            line++;
+        }
+
+    }
+
+    /**
+     * decodes the unexpected character for the error message, consuming the rest of its UTF-8 sequence
+     */
+    private String unexpectedCharacter(byte first) {
+        int continuation;
+        if ((first & 0xE0) == 0xC0) continuation = 1;
+        else if ((first & 0xF0) == 0xE0) continuation = 2;
+        else if ((first & 0xF8) == 0xF0) continuation = 3;
+        else return String.valueOf((char) (first & 0xFF));
+
+        while (continuation-- > 0 && (peek() & 0xC0) == 0x80) advance();
+        return decode(start, current);
+    }
+
+    /**
+     * adds a LexerError to errors and throws
+     * @param message
+     * @throws LexerErrorException
+     */
+    private void report(String message) throws LexerErrorException {
+        errors.add(new LexerError(message, line));
+        throw new LexerErrorException();
+    }
+}
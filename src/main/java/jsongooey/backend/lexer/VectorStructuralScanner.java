@@ -0,0 +1,128 @@
+package jsongooey.backend.lexer;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * simdjson style stage 1: classifies the source in blocks of 64 characters with the Vector API.
+ * <p>
+ * every block is turned into bitmasks of quotes, backslashes, structural characters, whitespace and newlines,
+ * one bit per character. from those, with plain bit arithmetic, escaped quotes are dropped, the characters inside
+ * strings are masked out, and the starts of scalars (numbers and keywords) are found.
+ * what is left is the structural index: the offset of every structural character, quote and scalar start.
+ * <p>
+ * only loaded when the jdk.incubator.vector module is present, see Lexer
+ */
+final class VectorStructuralScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int BLOCK = 64;
+    private static final long EVEN_BITS = 0x5555_5555_5555_5555L;
+
+    // state carried from one block to the next
+    private long previousEscaped = 0;
+    private long previousInString = 0;
+    private long previousScalar = 0;
+
+    private VectorStructuralScanner() {}
+
+    /**
+     * @param source json source
+     * @param from offset to start at, must not be inside a string literal
+     * @param to offset to stop at
+     * @param line line number at from
+     * @return the structural index of the range
+     */
+    static StructuralIndex scan(String source, int from, int to, int line) {
+        return new VectorStructuralScanner().index(source, from, to, line);
+    }
+
+    private StructuralIndex index(String source, int from, int to, int line) {
+        StructuralIndex index = new StructuralIndex(to, (to - from) / 8);
+        char[] block = new char[BLOCK];
+
+        for (int blockStart = from; blockStart < to; blockStart += BLOCK) {
+            int count = Math.min(BLOCK, to - blockStart);
+            source.getChars(blockStart, blockStart + count, block, 0);
+            // pad the last block with whitespace, it never shows up in the index
+            for (int i = count; i < BLOCK; i++) block[i] = ' ';
+
+            long quote = 0, backslash = 0, operator = 0, whitespace = 0, newline = 0;
+            for (int i = 0; i < BLOCK; i += SPECIES.length()) {
+                ShortVector chars = ShortVector.fromCharArray(SPECIES, block, i);
+
+                VectorMask<Short> isNewline = chars.eq((short) '\n');
+                VectorMask<Short> isOperator = chars.eq((short) '{')
+                        .or(chars.eq((short) '}'))
+                        .or(chars.eq((short) '['))
+                        .or(chars.eq((short) ']'))
+                        .or(chars.eq((short) ':'))
+                        .or(chars.eq((short) ','));
+                VectorMask<Short> isWhitespace = chars.eq((short) ' ')
+                        .or(chars.eq((short) '\t'))
+                        .or(chars.eq((short) '\r'))
+                        .or(isNewline);
+
+                quote |= chars.eq((short) '"').toLong() << i;
+                backslash |= chars.eq((short) '\\').toLong() << i;
+                operator |= isOperator.toLong() << i;
+                whitespace |= isWhitespace.toLong() << i;
+                newline |= isNewline.toLong() << i;
+            }
+
+            quote &= ~escaped(backslash);
+
+            // a bit is set from an opening quote up to, not including, the closing quote
+            long inString = prefixXor(quote) ^ previousInString;
+            previousInString = inString >> 63;
+
+            long scalar = ~(operator | whitespace | quote | inString);
+            long scalarStart = scalar & ~(scalar << 1 | previousScalar);
+            previousScalar = scalar >>> 63;
+
+            long structural = (operator & ~inString) | quote | scalarStart;
+            if (count < BLOCK) structural &= (1L << count) - 1;
+
+            while (structural != 0) {
+                int bit = Long.numberOfTrailingZeros(structural);
+                index.add(blockStart + bit, line + Long.bitCount(newline & ((1L << bit) - 1)));
+                structural &= structural - 1;
+            }
+            line += Long.bitCount(newline);
+        }
+
+        index.setEndLine(line);
+        return index;
+    }
+
+    /**
+     * finds the characters escaped by a backslash, handling runs of backslashes and runs crossing blocks
+     * (the branchless algorithm from simdjson)
+     * @param backslash backslash bits of the block
+     * @return bits of the escaped characters
+     */
+    private long escaped(long backslash) {
+        backslash &= ~previousEscaped;
+        long followsEscape = backslash << 1 | previousEscaped;
+        long oddSequenceStarts = backslash & ~EVEN_BITS & ~followsEscape;
+
+        long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+        previousEscaped = Long.compareUnsigned(sequencesStartingOnEvenBits, backslash) < 0 ? 1 : 0;
+
+        long invertMask = sequencesStartingOnEvenBits << 1;
+        return (EVEN_BITS ^ invertMask) & followsEscape;
+    }
+
+    /**
+     * @return each bit is the xor of itself and all lower bits
+     */
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+}
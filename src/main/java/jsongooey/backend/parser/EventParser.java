@@ -0,0 +1,226 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenSource;
+import jsongooey.backend.lexer.TokenType;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  push parser: reads a single json value from a TokenSource and fires JsonHandler events while it scans,
+ *  without building ObjectValue or ArrayValue. memory use only depends on the nesting depth,
+ *  which is tracked with one bit per open container, so huge documents can be aggregated in constant memory.
+ *  accepts the same grammar as Parser and stops at the first syntax error, no events are fired after it.
+ *  the lexer is drained after the value, so getLexerErrors() holds every lexical error of the source
+ */
+public class EventParser {
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private final TokenSource tokens;
+    private final JsonHandler handler;
+    private int maxDepth = UNLIMITED_DEPTH;
+    private boolean trailingAllowed = true;
+
+    // one bit per open container, set for objects: bit i % 64 of objects[i / 64] for the container at depth i
+    private long[] objects = new long[1];
+    private int depth = 0;
+
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    public EventParser(TokenSource tokens, JsonHandler handler) {
+        this.tokens = tokens;
+        this.handler = handler;
+    }
+
+    /**
+     * lexes the source with a Lexer as it is parsed
+     */
+    public EventParser(String source, JsonHandler handler) {
+        this(new Lexer(source), handler);
+    }
+
+    /**
+     * @param maxDepth the maximum number of nested objects and arrays
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) throw new IllegalArgumentException("max depth must be positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @param trailingAllowed whether tokens may follow the value, they are ignored like Parser ignores them.
+     *                        if not, they are the syntax error "unexpected token after value"
+     */
+    public void setTrailingAllowed(boolean trailingAllowed) {
+        this.trailingAllowed = trailingAllowed;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return tokens.getErrors();
+    }
+
+    /**
+     * advances to the next token. once EOF is reached it stays current
+     */
+    private void advance() {
+        if (peek() != EOF) tokens.next();
+    }
+
+    private TokenType peek() {
+        return tokens.getType();
+    }
+
+    private boolean match(TokenType type) {
+        if (peek() != type) return false;
+        advance();
+        return true;
+    }
+
+    private void mustMatch(TokenType type, String errorMessage) {
+        if (!match(type)) report(errorMessage);
+    }
+
+    /**
+     * consumes the current literal token
+     * @return its literal
+     */
+    private Object literal() {
+        Object literal = tokens.getLiteral();
+        advance();
+        return literal;
+    }
+
+    /**
+     * opens a container, the opening bracket is already consumed
+     */
+    private void push(boolean object) {
+        if (depth >= maxDepth) report("maximum nesting depth of " + maxDepth + " exceeded");
+        if (depth >>> 6 == objects.length) objects = Arrays.copyOf(objects, objects.length * 2);
+        if (object) objects[depth >>> 6] |= 1L << depth;
+        else objects[depth >>> 6] &= ~(1L << depth);
+        depth++;
+
+        if (object) handler.startObject();
+        else handler.startArray();
+    }
+
+    /**
+     * @param level depth of an open container, 0 for the outermost
+     */
+    private boolean isObject(int level) {
+        return (objects[level >>> 6] & 1L << level) != 0;
+    }
+
+    /**
+     * closes the innermost container, the closing bracket is already consumed
+     */
+    private void pop() {
+        if (isObject(--depth)) handler.endObject();
+        else handler.endArray();
+    }
+
+    /**
+     * consumes a member key and the colon after it
+     * @return whether a key was found
+     */
+    private boolean key() {
+        if (peek() != STRING) return false;
+        handler.key((String) literal());
+        mustMatch(COLON, "colon not found after key name");
+        return true;
+    }
+
+    /**
+     * parses the value at the current token and everything nested in it
+     */
+    private void value() {
+        while (true) {
+            // a value starts here, containers are opened until a complete value is found
+            switch (peek()) {
+                case OPEN_BRACE -> {
+                    advance();
+                    push(true);
+                    if (key()) continue;
+                    mustMatch(CLOSE_BRACE, "object not terminated by closing brace");
+                    pop();
+                }
+                case OPEN_SQUARE_BRACKET -> {
+                    advance();
+                    push(false);
+                    if (peek() != CLOSE_SQUARE_BRACKET) continue;
+                    advance();
+                    pop();
+                }
+                case NUMBER -> handler.numberValue((Number) literal());
+                case STRING -> handler.stringValue((String) literal());
+                case TRUE, FALSE -> handler.booleanValue((Boolean) literal());
+                case NULL -> {
+                    advance();
+                    handler.nullValue();
+                }
+                default -> {
+                    if (depth == 0) report("value expected");
+                    if (isObject(depth - 1)) report("value not found in object member");
+                    // like Parser, a missing array element is fine right before the closing bracket
+                    mustMatch(CLOSE_SQUARE_BRACKET, "array unclosed");
+                    pop();
+                }
+            }
+
+            // the value is complete, containers are closed while they end
+            while (true) {
+                if (depth == 0) return;
+
+                if (isObject(depth - 1)) {
+                    if (match(COMMA)) {
+                        if (!key()) report("object has trailing comma");
+                        break;
+                    }
+                    mustMatch(CLOSE_BRACE, "object not terminated by closing brace");
+                } else {
+                    if (match(COMMA)) break;
+                    mustMatch(CLOSE_SQUARE_BRACKET, "array unclosed");
+                }
+                pop();
+            }
+        }
+    }
+
+    /**
+     * adds a SyntaxError object to errors field and throws exception
+     * @throws SyntaxErrorException
+     */
+    private void report(String message) throws SyntaxErrorException {
+        errors.add(new SyntaxError(message, tokens.getLine()));
+        throw new SyntaxErrorException();
+    }
+
+    /**
+     * parses one value of any type, then lexes the rest of the source for lexical errors.
+     * starts at the current token if the token source was already advanced, else at the first token
+     */
+    public void parse() {
+        if (peek() == null) tokens.next();
+        try {
+            value();
+            if (!trailingAllowed && peek() != EOF) report("unexpected token after value");
+        } catch (SyntaxErrorException _) {
+            depth = 0;
+        } finally {
+            while (peek() != EOF) tokens.next();
+        }
+    }
+}
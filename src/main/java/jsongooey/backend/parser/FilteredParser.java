@@ -0,0 +1,174 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenSource;
+
+import java.util.*;
+
+import static jsongooey.backend.lexer.TokenType.EOF;
+
+/**
+ * parses only the parts of a document that match a set of PathSelectors.
+ * a JsonReader walks the document, subtrees that no selector can reach are skipped with skipValue(),
+ * and Value objects are only built for the subtrees that a selector matches.
+ * <p>
+ * the results are getMatches(), a map from the JSON Pointer of every match to its value in document order,
+ * and getObject(), a sparse copy of the document holding only the matches and their ancestors.
+ * sparse arrays keep the matched elements in order, so their indexes are not the indexes of the document,
+ * the pointers in getMatches() are.
+ * <p>
+ * like Parser, only a top level object is parsed. walking uses an explicit stack, not recursion
+ */
+public class FilteredParser {
+    private final TokenSource tokens;
+    private final List<PathSelector> selectors;
+
+    private ObjectValue object = new ObjectValue();
+    private final Map<String, Value> matches = new LinkedHashMap<>();
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    /**
+     * an open container of the document
+     */
+    private static final class Frame {
+        final String key;
+        final Value sparse;
+        // per selector, the number of its segments matched by the path of this container, -1 if it can not match
+        final int[] matched;
+        int index = 0;
+
+        Frame(String key, Value sparse, int[] matched) {
+            this.key = key;
+            this.sparse = sparse;
+            this.matched = matched;
+        }
+    }
+
+    public FilteredParser(TokenSource tokens, Collection<PathSelector> selectors) {
+        this.tokens = tokens;
+        this.selectors = List.copyOf(selectors);
+    }
+
+    /**
+     * lexes the source with a Lexer as it is parsed
+     * @param selectors JSON Pointers or JSONPaths, see PathSelector
+     */
+    public FilteredParser(String source, String... selectors) {
+        this(new Lexer(source), Arrays.stream(selectors).map(PathSelector::parse).toList());
+    }
+
+    /**
+     * @return sparse copy of the document with only the matched subtrees
+     */
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    /**
+     * @return JSON Pointer of every match and its value, in document order
+     */
+    public Map<String, Value> getMatches() {
+        return matches;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return tokens.getErrors();
+    }
+
+    public void parse() {
+        JsonReader reader = new JsonReader(tokens);
+        try {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) return;
+
+            for (PathSelector selector : selectors) {
+                if (selector.size() == 0) {
+                    // the whole document is selected
+                    object = (ObjectValue) reader.nextValue();
+                    matches.put("", object);
+                    return;
+                }
+            }
+            walk(reader);
+        } catch (MalformedJsonException e) {
+            // lexical errors are in getLexerErrors()
+            if (tokens.getErrors().isEmpty()) errors.add(new SyntaxError(e.getMessage(), e.getLine()));
+        } finally {
+            while (tokens.getType() != null && tokens.getType() != EOF) tokens.next();
+        }
+    }
+
+    private void walk(JsonReader reader) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        List<String> path = new ArrayList<>();
+
+        reader.beginObject();
+        stack.push(new Frame(null, object, new int[selectors.size()]));
+
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+
+            if (!reader.hasNext()) {
+                if (frame.sparse instanceof ObjectValue) reader.endObject();
+                else reader.endArray();
+                stack.pop();
+                if (stack.isEmpty()) break;
+
+                path.removeLast();
+                if (!isEmpty(frame.sparse)) add(stack.peek(), frame.key, frame.sparse);
+                continue;
+            }
+
+            String key = frame.sparse instanceof ObjectValue ? reader.nextName() : String.valueOf(frame.index++);
+
+            int[] matched = new int[selectors.size()];
+            boolean reachable = false;
+            boolean complete = false;
+            for (int i = 0; i < selectors.size(); i++) {
+                int segment = frame.matched[i];
+                if (segment >= 0 && selectors.get(i).matches(segment, key)) {
+                    matched[i] = segment + 1;
+                    reachable = true;
+                    complete |= matched[i] == selectors.get(i).size();
+                } else {
+                    matched[i] = -1;
+                }
+            }
+
+            if (complete) {
+                path.add(key);
+                Value value = reader.nextValue();
+                matches.put(PathSelector.pointer(path), value);
+                add(frame, key, value);
+                path.removeLast();
+            } else if (reachable && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                path.add(key);
+                stack.push(new Frame(key, new ObjectValue(), matched));
+            } else if (reachable && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                path.add(key);
+                stack.push(new Frame(key, new ArrayValue(), matched));
+            } else {
+                reader.skipValue();
+            }
+        }
+    }
+
+    private static boolean isEmpty(Value container) {
+        if (container instanceof ObjectValue object) return object.getMembers().isEmpty();
+        return ((ArrayValue) container).getArray().isEmpty();
+    }
+
+    private static void add(Frame parent, String key, Value value) {
+        if (parent.sparse instanceof ObjectValue object) object.addMember(key, value);
+        else ((ArrayValue) parent.sparse).addValue(value);
+    }
+}
@@ -0,0 +1,217 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.*;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenSource;
+import jsongooey.backend.lexer.TokenType;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  parses straight from a TokenSource, in a single pass together with the lexer.
+ *  every token is consumed right after it is lexed, so no token list is ever built and only the source and
+ *  the model are kept in memory.
+ *  accepts the same grammar and reports the same syntax errors as Parser.
+ *  the lexer is drained after the top level object, so getLexerErrors() holds every lexical error of the source
+ */
+public class FusedParser {
+    private final TokenSource tokens;
+    private ObjectValue object = new ObjectValue();
+    private final Shape shapes = Shape.root();
+
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    public FusedParser(TokenSource tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * lexes the source with a Lexer as it is parsed
+     */
+    public FusedParser(String source) {
+        this(new Lexer(source));
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return tokens.getErrors();
+    }
+
+    /**
+     * advances to the next token. once EOF is reached it stays current
+     */
+    private void advance() {
+        if (peek() != EOF) tokens.next();
+    }
+
+    /**
+     * @return the type of the next token to be consumed
+     */
+    private TokenType peek() {
+        return tokens.getType();
+    }
+
+    /**
+     * consumes a token only if it's a given type
+     * @param type the type to match against
+     * @return whether a token was consumed
+     */
+    private boolean match(TokenType type) {
+        if (peek() != type) return false;
+        advance();
+        return true;
+    }
+
+    /**
+     * consumes next token of expected type, if unexpected adds error with message errorMessage to field errors and throws exception
+     * @throws SyntaxErrorException if the next token is not of expected type
+     */
+    private void mustMatch(TokenType type, String errorMessage) {
+        if (!match(type)) report(errorMessage);
+    }
+
+    /**
+     * consumes a literal token of a given type
+     * @return its literal, or null if the next token is not of that type
+     */
+    private Object literal(TokenType type) {
+        if (peek() != type) return null;
+        Object literal = tokens.getLiteral();
+        advance();
+        return literal;
+    }
+
+    /**
+     * parses an array, the opening bracket is the current token
+     * @return the ArrayValue, holding the values parsed so far if a syntax error was found
+     */
+    private ArrayValue array() throws SyntaxErrorException {
+        advance(); // [
+
+        ArrayValue array = new PackedArrayValue();
+
+        Value newValue;
+
+        try {
+            newValue = value();
+        } catch (SyntaxErrorException _) {
+            return array;
+        }
+
+        while (newValue != null) {
+            array.addValue(newValue);
+
+            if (!match(COMMA)) break;
+
+            try {
+                newValue = value();
+            } catch (SyntaxErrorException _) {
+                return array;
+            }
+        }
+
+        mustMatch(CLOSE_SQUARE_BRACKET, "array unclosed");
+
+        return array;
+    }
+
+    /**
+     * parses an object member (key value pair) and adds it to an object
+     * @return whether a member was found
+     */
+    private boolean member(ObjectValue object) throws SyntaxErrorException {
+        String key = (String) literal(STRING);
+        if (key == null) return false;
+
+        mustMatch(COLON, "colon not found after key name");
+
+        Value value = value();
+        if (value == null) report("value not found in object member");
+
+        object.addMember(key, value);
+        return true;
+    }
+
+    /**
+     * parses an object, the opening brace is the current token
+     * @return the ObjectValue, holding the members parsed so far if a syntax error was found
+     */
+    private ObjectValue object() throws SyntaxErrorException {
+        advance(); // {
+
+        ObjectValue newObject = new ShapedObjectValue(shapes);
+        boolean found;
+        try {
+            found = member(newObject);
+        } catch (SyntaxErrorException _) {
+            return newObject;
+        }
+
+        if (found) {
+            while (match(COMMA)) {
+                try {
+                    found = member(newObject);
+                } catch (SyntaxErrorException _) {
+                    return newObject;
+                }
+
+                if (!found) report("object has trailing comma");
+            }
+        }
+
+        mustMatch(CLOSE_BRACE, "object not terminated by closing brace");
+
+        return newObject;
+    }
+
+    /**
+     * parses a value, dispatching on the type of the current token
+     * @return the Value, or null if the current token does not start a value
+     */
+    private Value value() {
+        return switch (peek()) {
+            case OPEN_BRACE -> object();
+            case OPEN_SQUARE_BRACKET -> array();
+            case NUMBER -> new NumberValue((Number) literal(NUMBER));
+            case STRING -> new StringValue((String) literal(STRING));
+            case TRUE, FALSE -> BooleanValue.of((Boolean) literal(peek()));
+            case NULL -> {
+                advance();
+                yield NullValue.NULL;
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * adds a SyntaxError object to errors field and throws exception
+     * @throws SyntaxErrorException
+     */
+    private void report(String message) throws SyntaxErrorException {
+        errors.add(new SyntaxError(message, tokens.getLine()));
+        throw new SyntaxErrorException();
+    }
+
+    /**
+     * parses the top level object, then lexes the rest of the source for lexical errors
+     */
+    public void parse() {
+        tokens.next();
+        try {
+            object = peek() == OPEN_BRACE ? object() : new ObjectValue();
+        } finally {
+            while (tokens.getType() != EOF) tokens.next();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenSource;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  parses from a TokenSource without recursion. it is an EventParser with a ValueBuilder as its handler,
+ *  both keep the open objects and arrays on an explicit stack on the heap,
+ *  so the nesting depth of the document is only limited by memory, or by setMaxDepth() for untrusted input.
+ *  accepts the same grammar as Parser and reports the same message for the first syntax error,
+ *  but stops at the first syntax error. getObject() then holds what was parsed up to it.
+ *  the lexer is drained after the top level object, so getLexerErrors() holds every lexical error of the source
+ */
+public class IterativeParser {
+    public static final int UNLIMITED_DEPTH = EventParser.UNLIMITED_DEPTH;
+
+    private final TokenSource tokens;
+    private int maxDepth = UNLIMITED_DEPTH;
+    private ObjectValue object = new ObjectValue();
+
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    public IterativeParser(TokenSource tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * lexes the source with a Lexer as it is parsed
+     */
+    public IterativeParser(String source) {
+        this(new Lexer(source));
+    }
+
+    /**
+     * @param maxDepth the maximum number of nested objects and arrays, the top level object included
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) throw new IllegalArgumentException("max depth must be positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return tokens.getErrors();
+    }
+
+    /**
+     * parses the top level object with an EventParser feeding a ValueBuilder,
+     * then lexes the rest of the source for lexical errors
+     */
+    public void parse() {
+        if (tokens.next() != OPEN_BRACE) {
+            while (tokens.getType() != EOF) tokens.next();
+            return;
+        }
+
+        ValueBuilder builder = new ValueBuilder();
+        EventParser events = new EventParser(tokens, builder);
+        events.setMaxDepth(maxDepth);
+        events.parse();
+
+        errors = events.getErrors();
+        object = (ObjectValue) builder.getValue();
+    }
+}
@@ -0,0 +1,31 @@
+package jsongooey.backend.parser;
+
+/**
+ * receives the events of an EventParser in document order, no ObjectValue or ArrayValue is ever built.
+ * every method does nothing by default, so a handler only overrides the events it needs
+ */
+public interface JsonHandler {
+    default void startObject() {}
+
+    default void endObject() {}
+
+    default void startArray() {}
+
+    default void endArray() {}
+
+    /**
+     * the key of an object member, followed by the events of its value
+     */
+    default void key(String key) {}
+
+    default void stringValue(String value) {}
+
+    /**
+     * @param value a Long, Double or BigDecimal, see NumberScanner
+     */
+    default void numberValue(Number value) {}
+
+    default void booleanValue(boolean value) {}
+
+    default void nullValue() {}
+}
@@ -0,0 +1,114 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Deduplicator;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.KeyCache;
+import jsongooey.backend.lexer.Lexer;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * parses many small documents with little garbage, for servers that parse one per request.
+ * a parse borrows a workspace from a pool: a Lexer and a Parser that are reset for each source,
+ * so their token buffer and error lists are reused, and a KeyCache, so repeated member keys are not decoded again.
+ * <p>
+ * safe for concurrent callers. the pool is a bounded queue, not a ThreadLocal, so it also works for virtual threads,
+ * which are too many and too short lived for per thread state, and it never blocks: a caller that finds the pool empty
+ * makes a new workspace, and a workspace that finds the pool full is dropped. workspaces whose token buffer grew
+ * past MAX_RETAINED_TOKENS are dropped too, so one huge document does not stay in memory.
+ * <p>
+ * results never point into a workspace, they can be kept after the next parse.
+ * with a Deduplicator, the objects and arrays repeated within and across results are shared, see setDeduplicator()
+ */
+public class JsonParsingService {
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int MAX_RETAINED_TOKENS = 1 << 16;
+
+    private final BlockingQueue<Workspace> pool;
+    private volatile Deduplicator deduplicator;
+
+    /**
+     * everything one parse needs, used by one thread at a time
+     */
+    private static final class Workspace {
+        final Lexer lexer = new Lexer("");
+        final Parser parser = new Parser(lexer.getTokenBuffer());
+        final KeyCache keys = new KeyCache();
+
+        Workspace() {
+            // the scalar lexer fills the pooled token buffer, the vectorized one only pays off for big documents
+            lexer.setVectorized(false);
+            parser.setKeyCache(keys);
+        }
+    }
+
+    /**
+     * @param poolSize maximum number of idle workspaces kept for reuse
+     */
+    public JsonParsingService(int poolSize) {
+        if (poolSize < 1) throw new IllegalArgumentException("pool size must be positive: " + poolSize);
+        pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public JsonParsingService() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param deduplicator table the results are deduplicated in, null to leave them as parsed.
+     * deduplicated results are frozen, and are deduplicated one at a time
+     */
+    public void setDeduplicator(Deduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    public Deduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * lexes and parses a source like Lexer and Parser do. if lexical errors are found the source is not parsed
+     * @param source the json source
+     * @return the top level object and the errors
+     */
+    public ParseResult parse(String source) {
+        Workspace workspace = pool.poll();
+        if (workspace == null) workspace = new Workspace();
+
+        ParseResult result;
+        try {
+            result = parse(workspace, source);
+        } finally {
+            // neither the source nor the result is kept alive by an idle workspace
+            workspace.lexer.reset("");
+            workspace.parser.reset(workspace.lexer.getTokenBuffer());
+            if (workspace.lexer.getTokenBuffer().capacity() <= MAX_RETAINED_TOKENS) pool.offer(workspace);
+        }
+
+        Deduplicator deduplicator = this.deduplicator;
+        if (deduplicator == null) return result;
+        ObjectValue object = (ObjectValue) deduplicator.deduplicate(result.object());
+        return new ParseResult(object, result.lexerErrors(), result.errors());
+    }
+
+    private static ParseResult parse(Workspace workspace, String source) {
+        Lexer lexer = workspace.lexer;
+        lexer.reset(source);
+        lexer.lexTokens();
+        if (!lexer.getErrors().isEmpty()) {
+            return new ParseResult(new ObjectValue(), List.copyOf(lexer.getErrors()), List.of());
+        }
+
+        // the parser was reset to the token buffer of the lexer when the workspace was returned
+        Parser parser = workspace.parser;
+        try {
+            parser.parse();
+        } catch (SyntaxErrorException _) {
+            // Parser does not catch errors of the top level object, the error is in getErrors()
+        }
+        List<SyntaxError> errors = parser.getErrors().isEmpty() ? List.of() : List.copyOf(parser.getErrors());
+        return new ParseResult(parser.getObject(), List.of(), errors);
+    }
+}
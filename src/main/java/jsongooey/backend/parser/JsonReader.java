@@ -0,0 +1,350 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenSource;
+import jsongooey.backend.lexer.TokenType;
+
+import java.util.Arrays;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * pull parser: the caller walks the document with peek(), beginObject(), nextName(), nextString() and so on,
+ * and only what it asks for is decoded. skipValue() jumps over a whole subtree by matching brackets,
+ * without decoding a single literal or building any value.
+ * <p>
+ * accepts the same grammar as Parser, except that skipped subtrees are only checked for balanced brackets.
+ * malformed input throws MalformedJsonException, with the same messages Parser reports.
+ * calling a method that does not match the next token throws IllegalStateException
+ */
+public class JsonReader {
+    // scopes on the stack, what was read last in each open container
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final TokenSource tokens;
+
+    private int[] scopes = new int[16];
+    private int depth = 0;
+
+    // one bit per container open in skipValue(), set for objects, so a closer of the wrong kind is caught
+    private long[] skipped = new long[1];
+
+    // cached result of peek(), null after the token was consumed
+    private JsonToken peeked;
+
+    public JsonReader(TokenSource tokens) {
+        this.tokens = tokens;
+        scopes[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * lexes the source with a Lexer as it is read
+     */
+    public JsonReader(String source) {
+        this(new Lexer(source));
+    }
+
+    /**
+     * @return line of the next token
+     */
+    public int getLine() {
+        return tokens.getLine();
+    }
+
+    /**
+     * @return the kind of the next token, without consuming it
+     * @throws MalformedJsonException if the next token can not follow the previous ones
+     */
+    public JsonToken peek() {
+        if (peeked != null) return peeked;
+        if (tokens.getType() == null) advance();
+
+        peeked = switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT -> {
+                scopes[depth - 1] = NONEMPTY_DOCUMENT;
+                yield value("value expected");
+            }
+            // like Parser, whatever follows the top level value is ignored
+            case NONEMPTY_DOCUMENT -> JsonToken.END_DOCUMENT;
+            case EMPTY_ARRAY -> {
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                yield type() == CLOSE_SQUARE_BRACKET ? JsonToken.END_ARRAY : value("array unclosed");
+            }
+            case NONEMPTY_ARRAY -> {
+                if (type() == CLOSE_SQUARE_BRACKET) yield JsonToken.END_ARRAY;
+                if (type() != COMMA) throw error("array unclosed");
+                advance();
+                // like Parser, a missing element is fine right before the closing bracket
+                yield type() == CLOSE_SQUARE_BRACKET ? JsonToken.END_ARRAY : value("array unclosed");
+            }
+            case EMPTY_OBJECT -> {
+                if (type() == CLOSE_BRACE) yield JsonToken.END_OBJECT;
+                if (type() != STRING) throw error("object not terminated by closing brace");
+                yield JsonToken.NAME;
+            }
+            case DANGLING_NAME -> {
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                yield value("value not found in object member");
+            }
+            case NONEMPTY_OBJECT -> {
+                if (type() == CLOSE_BRACE) yield JsonToken.END_OBJECT;
+                if (type() != COMMA) throw error("object not terminated by closing brace");
+                advance();
+                if (type() != STRING) throw error("object has trailing comma");
+                yield JsonToken.NAME;
+            }
+            default -> throw new IllegalStateException("unknown scope " + scopes[depth - 1]);
+        };
+        return peeked;
+    }
+
+    /**
+     * @return whether the current object or array has another member or element
+     */
+    public boolean hasNext() {
+        JsonToken next = peek();
+        return next != JsonToken.END_OBJECT && next != JsonToken.END_ARRAY && next != JsonToken.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(JsonToken.BEGIN_OBJECT);
+        consume();
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(JsonToken.END_OBJECT);
+        consume();
+        depth--;
+    }
+
+    public void beginArray() {
+        expect(JsonToken.BEGIN_ARRAY);
+        consume();
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(JsonToken.END_ARRAY);
+        consume();
+        depth--;
+    }
+
+    /**
+     * consumes the key of an object member and the colon after it
+     * @return the key
+     */
+    public String nextName() {
+        expect(JsonToken.NAME);
+        String name = (String) tokens.getLiteral();
+        consume();
+        if (type() != COLON) throw error("colon not found after key name");
+        advance();
+        scopes[depth - 1] = DANGLING_NAME;
+        return name;
+    }
+
+    /**
+     * @return the decoded string, or the lexeme of a number
+     */
+    public String nextString() {
+        JsonToken next = peek();
+        if (next != JsonToken.STRING && next != JsonToken.NUMBER) throw unexpected(JsonToken.STRING);
+        String string = next == JsonToken.STRING ? (String) tokens.getLiteral() : tokens.getLexeme();
+        consume();
+        return string;
+    }
+
+    public double nextDouble() {
+        return nextNumber().doubleValue();
+    }
+
+    /**
+     * @throws NumberFormatException if the number is not an integer that fits in a long
+     */
+    public long nextLong() {
+        Number number = nextNumber();
+        if (number instanceof Long value) return value;
+        throw new NumberFormatException("not a long: " + number);
+    }
+
+    /**
+     * @return a Long, Double or BigDecimal, see NumberScanner
+     */
+    public Number nextNumber() {
+        expect(JsonToken.NUMBER);
+        Number number = (Number) tokens.getLiteral();
+        consume();
+        return number;
+    }
+
+    public boolean nextBoolean() {
+        expect(JsonToken.BOOLEAN);
+        boolean value = type() == TRUE;
+        consume();
+        return value;
+    }
+
+    public void nextNull() {
+        expect(JsonToken.NULL);
+        consume();
+    }
+
+    /**
+     * reads the next value with everything nested in it into a Value tree, without recursion
+     * @return the value
+     */
+    public Value nextValue() {
+        if (!hasNext()) throw new IllegalStateException("no value to read, next is " + peek());
+
+        ValueBuilder builder = new ValueBuilder();
+        int nesting = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    builder.startObject();
+                    nesting++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    builder.endObject();
+                    nesting--;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    builder.startArray();
+                    nesting++;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    builder.endArray();
+                    nesting--;
+                }
+                case NAME -> builder.key(nextName());
+                case STRING -> builder.stringValue(nextString());
+                case NUMBER -> builder.numberValue(nextNumber());
+                case BOOLEAN -> builder.booleanValue(nextBoolean());
+                case NULL -> {
+                    nextNull();
+                    builder.nullValue();
+                }
+                case END_DOCUMENT -> throw error("value expected");
+            }
+        } while (nesting > 0);
+        return builder.getValue();
+    }
+
+    /**
+     * skips the next value, with everything nested in it, or the next member name together with its value.
+     * nested tokens are only matched by bracket, their literals are never decoded
+     */
+    public void skipValue() {
+        JsonToken next = peek();
+        if (next == JsonToken.NAME) {
+            nextName();
+            next = peek();
+        }
+
+        switch (next) {
+            case BEGIN_OBJECT, BEGIN_ARRAY -> {
+                int nesting = 0;
+                do {
+                    switch (type()) {
+                        case OPEN_BRACE, OPEN_SQUARE_BRACKET -> {
+                            if (nesting >>> 6 == skipped.length) skipped = Arrays.copyOf(skipped, skipped.length * 2);
+                            if (type() == OPEN_BRACE) skipped[nesting >>> 6] |= 1L << nesting;
+                            else skipped[nesting >>> 6] &= ~(1L << nesting);
+                            nesting++;
+                        }
+                        case CLOSE_BRACE, CLOSE_SQUARE_BRACKET -> {
+                            boolean object = isSkippedObject(nesting - 1);
+                            if (object != (type() == CLOSE_BRACE)) throw error(unclosed(object));
+                            nesting--;
+                        }
+                        case EOF -> throw error(unclosed(isSkippedObject(nesting - 1)));
+                        default -> {}
+                    }
+                    advance();
+                } while (nesting > 0);
+                peeked = null;
+            }
+            case STRING, NUMBER, BOOLEAN, NULL -> consume();
+            default -> throw new IllegalStateException("no value to skip, next is " + next);
+        }
+    }
+
+    private boolean isSkippedObject(int level) {
+        return (skipped[level >>> 6] & 1L << level) != 0;
+    }
+
+    private static String unclosed(boolean object) {
+        return object ? "object not terminated by closing brace" : "array unclosed";
+    }
+
+    private TokenType type() {
+        return tokens.getType();
+    }
+
+    /**
+     * moves to the next token
+     * @throws MalformedJsonException if the lexer found an error
+     */
+    private void advance() {
+        if (type() == EOF) return;
+        tokens.next();
+        if (!tokens.getErrors().isEmpty()) {
+            LexerError error = tokens.getErrors().getFirst();
+            throw new MalformedJsonException(error.message(), error.line());
+        }
+    }
+
+    /**
+     * consumes the peeked token
+     */
+    private void consume() {
+        advance();
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+        scopes[depth++] = scope;
+    }
+
+    /**
+     * @param missing error message if the current token does not start a value
+     * @return the kind of the value the current token starts
+     */
+    private JsonToken value(String missing) {
+        return switch (type()) {
+            case OPEN_BRACE -> JsonToken.BEGIN_OBJECT;
+            case OPEN_SQUARE_BRACKET -> JsonToken.BEGIN_ARRAY;
+            case STRING -> JsonToken.STRING;
+            case NUMBER -> JsonToken.NUMBER;
+            case TRUE, FALSE -> JsonToken.BOOLEAN;
+            case NULL -> JsonToken.NULL;
+            default -> throw error(missing);
+        };
+    }
+
+    private void expect(JsonToken expected) {
+        if (peek() != expected) throw unexpected(expected);
+    }
+
+    private IllegalStateException unexpected(JsonToken expected) {
+        return new IllegalStateException("expected " + expected + " but was " + peek() + " on line " + getLine());
+    }
+
+    private MalformedJsonException error(String message) {
+        return new MalformedJsonException(message, tokens.getLine());
+    }
+}
@@ -0,0 +1,17 @@
+package jsongooey.backend.parser;
+
+/**
+ * what JsonReader.peek() finds next
+ */
+public enum JsonToken {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT
+}
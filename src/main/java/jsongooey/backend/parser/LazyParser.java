@@ -0,0 +1,156 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.LazyIndex;
+import jsongooey.backend.jsonmodel.LazyObjectValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.TokenBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * parses into a lazy DOM. the source is lexed, then one pass over the token types checks the grammar
+ * and records where every object and array ends, without decoding a single literal or building any value.
+ * getObject() is a LazyObjectValue that decodes its members from the tokens the first time they are accessed,
+ * nested containers are decoded one level at a time as they are navigated.
+ * <p>
+ * the lazy object is equal to what Parser.parse() produces. if the source has lexical or syntax errors,
+ * an IterativeParser parses it again, so errors are reported like IterativeParser reports them,
+ * and the structural pass and the lazy containers use no recursion either
+ */
+public class LazyParser {
+    // what the structural pass expects next
+    private static final int VALUE = 0;
+    private static final int OBJECT_FIRST = 1;
+    private static final int ARRAY_FIRST = 2;
+    private static final int AFTER_VALUE = 3;
+    private static final int ARRAY_AFTER_COMMA = 4;
+
+    private final String source;
+
+    private ObjectValue object = new ObjectValue();
+    private List<LexerError> lexerErrors = new ArrayList<>();
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    public LazyParser(String source) {
+        this.source = source;
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return lexerErrors;
+    }
+
+    /**
+     * lexes the source and indexes the top level object
+     */
+    public void parse() {
+        Lexer lexer = new Lexer(source);
+        lexer.lexTokens();
+
+        if (lexer.getErrors().isEmpty()) {
+            TokenBuffer tokens = lexer.getTokenBuffer();
+            // like Parser, only the top level object is parsed and whatever follows it is ignored
+            if (tokens.type(0) != OPEN_BRACE) return;
+
+            int[] ends = index(tokens);
+            if (ends != null) {
+                object = new LazyObjectValue(new LazyIndex(tokens, ends), 0);
+                return;
+            }
+        }
+
+        IterativeParser parser = new IterativeParser(source);
+        parser.parse();
+        object = parser.getObject();
+        lexerErrors = parser.getLexerErrors();
+        errors = parser.getErrors();
+    }
+
+    /**
+     * checks the grammar of the top level object and finds the closing token of every container in it
+     * @return for every opening bracket, the index of its closing bracket, null if the object is not valid
+     */
+    private static int[] index(TokenBuffer tokens) {
+        int[] ends = new int[tokens.size()];
+        int[] open = new int[16];
+        int depth = 0;
+        int state = VALUE;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            var type = tokens.type(i);
+
+            if (state == ARRAY_FIRST || state == ARRAY_AFTER_COMMA) {
+                // like Parser, a missing element is fine right before the closing bracket
+                state = type == CLOSE_SQUARE_BRACKET ? AFTER_VALUE : VALUE;
+                if (type == CLOSE_SQUARE_BRACKET) {
+                    ends[open[--depth]] = i;
+                    if (depth == 0) return ends;
+                    continue;
+                }
+            }
+
+            switch (state) {
+                case VALUE -> {
+                    switch (type) {
+                        case OPEN_BRACE, OPEN_SQUARE_BRACKET -> {
+                            if (depth == open.length) open = Arrays.copyOf(open, depth * 2);
+                            open[depth++] = i;
+                            state = type == OPEN_BRACE ? OBJECT_FIRST : ARRAY_FIRST;
+                        }
+                        case STRING, NUMBER, TRUE, FALSE, NULL -> state = AFTER_VALUE;
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+                case OBJECT_FIRST -> {
+                    if (type == CLOSE_BRACE) {
+                        ends[open[--depth]] = i;
+                        if (depth == 0) return ends;
+                        state = AFTER_VALUE;
+                    } else if (isKey(tokens, i)) {
+                        i++; // :
+                        state = VALUE;
+                    } else {
+                        return null;
+                    }
+                }
+                case AFTER_VALUE -> {
+                    boolean inObject = tokens.type(open[depth - 1]) == OPEN_BRACE;
+                    if (type == (inObject ? CLOSE_BRACE : CLOSE_SQUARE_BRACKET)) {
+                        ends[open[--depth]] = i;
+                        if (depth == 0) return ends;
+                    } else if (type != COMMA) {
+                        return null;
+                    } else if (!inObject) {
+                        state = ARRAY_AFTER_COMMA;
+                    } else if (isKey(tokens, i + 1)) {
+                        i += 2; // key and :
+                        state = VALUE;
+                    } else {
+                        return null;
+                    }
+                }
+                default -> throw new IllegalStateException("unknown state " + state);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isKey(TokenBuffer tokens, int i) {
+        return i + 1 < tokens.size() && tokens.type(i) == STRING && tokens.type(i + 1) == COLON;
+    }
+}
@@ -0,0 +1,23 @@
+package jsongooey.backend.parser;
+
+/**
+ * thrown by JsonReader when the input is not valid json.
+ * unlike Parser, a pull parser can not go on after an error, so the error is thrown to the caller
+ */
+public class MalformedJsonException extends RuntimeException {
+    private final int line;
+
+    public MalformedJsonException(String message, int line) {
+        super(message);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return "Syntax error on line " + line + ": " + getMessage();
+    }
+}
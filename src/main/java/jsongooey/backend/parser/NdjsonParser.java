@@ -0,0 +1,227 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Shape;
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.LexerError;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * parses newline delimited json (NDJSON, JSON Lines): one json value per line, of any type.
+ * the source is split on newlines, which json only allows between tokens,
+ * and the records are parsed in parallel on an ExecutorService.
+ * <p>
+ * records are pulled with hasNext() and next(), in input order or in the order they finish, see setOrdered().
+ * at most getCapacity() records are read ahead of the caller, parsed or waiting to be, so a slow caller
+ * stops the reading instead of piling up parsed records. blank lines are skipped.
+ * <p>
+ * a record with errors does not stop the parsing, its errors are in the NdjsonRecord, with lines of the whole source.
+ * not thread safe, a single consumer pulls the records
+ */
+public class NdjsonParser implements Iterator<NdjsonRecord>, Closeable {
+    public static final int DEFAULT_CAPACITY = 4 * Runtime.getRuntime().availableProcessors();
+
+    private final Reader reader;
+    private final ExecutorService pool;
+    private boolean ordered = true;
+    private int capacity = DEFAULT_CAPACITY;
+    // records of the same keys share their shapes, Shape is thread safe
+    private final Shape shapes = Shape.root();
+
+    private final char[] buffer = new char[8192];
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfInput = false;
+    private int line = 1;
+    private int recordLine;
+    private long records = 0;
+
+    // records being parsed or waiting to be taken, in input order when ordered
+    private final Deque<Future<NdjsonRecord>> inFlight = new ArrayDeque<>();
+    // when unordered, the records in the order they finish
+    private CompletionService<NdjsonRecord> completion;
+    private int pending = 0;
+
+    /**
+     * @param reader the source, closed by close()
+     * @param pool workers that parse the records
+     */
+    public NdjsonParser(Reader reader, ExecutorService pool) {
+        this.reader = reader;
+        this.pool = pool;
+    }
+
+    /**
+     * parses on the common ForkJoinPool
+     */
+    public NdjsonParser(String source) {
+        this(new StringReader(source), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param ordered whether records are handed out in input order, else as soon as they are parsed
+     */
+    public void setOrdered(boolean ordered) {
+        checkNotStarted();
+        this.ordered = ordered;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @param capacity maximum number of records read but not yet taken by next()
+     */
+    public void setCapacity(int capacity) {
+        checkNotStarted();
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * reads records until the capacity is reached
+     * @throws UncheckedIOException if the source can not be read
+     */
+    @Override
+    public boolean hasNext() {
+        fill();
+        return pending > 0;
+    }
+
+    /**
+     * blocks until the next record is parsed
+     */
+    @Override
+    public NdjsonRecord next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        Future<NdjsonRecord> next;
+        try {
+            next = ordered ? inFlight.removeFirst() : completion.take();
+            pending--;
+            // keep the workers busy while the caller handles the record
+            fill();
+            return next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted while waiting for a record");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("parsing a record failed", e.getCause());
+        }
+    }
+
+    /**
+     * cancels the records still in flight and closes the source
+     */
+    @Override
+    public void close() throws IOException {
+        for (var future : inFlight) future.cancel(true);
+        inFlight.clear();
+        pending = 0;
+        endOfInput = true;
+        reader.close();
+    }
+
+    private void checkNotStarted() {
+        if (records > 0 || endOfInput) throw new IllegalStateException("parsing already started");
+    }
+
+    private void fill() {
+        if (completion == null && !ordered) completion = new ExecutorCompletionService<>(pool);
+
+        while (pending < capacity && !endOfInput) {
+            String text = readRecord();
+            if (text == null) break;
+
+            long number = ++records;
+            int start = recordLine;
+            Callable<NdjsonRecord> task = () -> parseRecord(number, start, text, shapes);
+            if (ordered) inFlight.addLast(pool.submit(task));
+            else inFlight.addLast(completion.submit(task));
+            pending++;
+        }
+        if (!ordered) inFlight.removeIf(Future::isDone);
+    }
+
+    /**
+     * @return the text of the next line that is not blank, without its line break, null at the end of the source.
+     * recordLine is then its line. a raw newline can not be part of a json value, so a malformed line,
+     * an unterminated string say, never takes the lines after it along
+     */
+    private String readRecord() {
+        StringBuilder record = new StringBuilder();
+        boolean blank = true;
+
+        while (true) {
+            if (position == limit && !read()) {
+                endOfInput = true;
+                return blank ? null : record.toString();
+            }
+            char c = buffer[position++];
+
+            if (c == '\n') {
+                line++;
+                if (!blank) {
+                    int end = record.length();
+                    if (record.charAt(end - 1) == '\r') record.setLength(end - 1);
+                    return record.toString();
+                }
+                record.setLength(0);
+                continue;
+            }
+            record.append(c);
+
+            if (blank && c != ' ' && c != '\t' && c != '\r') {
+                blank = false;
+                recordLine = line;
+            }
+        }
+    }
+
+    private boolean read() {
+        try {
+            limit = reader.read(buffer);
+            position = 0;
+            return limit > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * parses one record with an EventParser, nothing may follow its value
+     * @param line line of the source the record starts on, error lines are moved by it
+     * @param shapes shapes of the objects of the records
+     */
+    static NdjsonRecord parseRecord(long number, int line, String text, Shape shapes) {
+        Lexer lexer = new Lexer(text);
+        ValueBuilder builder = new ValueBuilder(shapes);
+        EventParser parser = new EventParser(lexer, builder);
+        parser.setTrailingAllowed(false);
+        parser.parse();
+
+        List<LexerError> lexerErrors = new ArrayList<>(lexer.getErrors().size());
+        for (LexerError error : lexer.getErrors()) {
+            lexerErrors.add(new LexerError(error.message(), line + error.line() - 1));
+        }
+        List<SyntaxError> errors = new ArrayList<>(parser.getErrors().size());
+        for (SyntaxError error : parser.getErrors()) {
+            errors.add(new SyntaxError(error.message(), line + error.line() - 1));
+        }
+
+        Value value = lexerErrors.isEmpty() && errors.isEmpty() ? builder.getValue() : null;
+        return new NdjsonRecord(number, line, value, lexerErrors, errors);
+    }
+}
@@ -0,0 +1,22 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.LexerError;
+
+import java.util.List;
+
+/**
+ * one parsed record of a newline delimited json source.
+ * error lines are lines of the whole source, not of the record
+ * @param number position of the record in the source, starting at 1. blank lines are not records
+ * @param line line of the source the record starts on
+ * @param value the value of the record, null if it has errors
+ * @param lexerErrors lexical errors of the record
+ * @param errors syntax errors of the record
+ */
+public record NdjsonRecord(long number, int line, Value value, List<LexerError> lexerErrors, List<SyntaxError> errors) {
+
+    public boolean hasErrors() {
+        return !lexerErrors.isEmpty() || !errors.isEmpty();
+    }
+}
@@ -0,0 +1,273 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.PackedArrayValue;
+import jsongooey.backend.jsonmodel.Shape;
+import jsongooey.backend.jsonmodel.ShapedObjectValue;
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.KeyCache;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.ParallelLexer;
+import jsongooey.backend.lexer.TokenBuffer;
+import jsongooey.backend.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static jsongooey.backend.lexer.TokenType.*;
+
+/**
+ * parses a huge document on a ForkJoinPool.
+ * <p>
+ * the source is lexed by a ParallelLexer. then containers that span many tokens are split into their children:
+ * big child containers are parsed by their own task, runs of small children are batched into one task
+ * and parsed by a sequential Parser. results are stitched back in input order, so getObject() is equal to
+ * what Parser.parse() produces.
+ * <p>
+ * whenever the document is not plain valid json the sequential Parser parses it instead,
+ * so errors are reported exactly like Parser reports them
+ */
+public class ParallelParser {
+    public static final int DEFAULT_TASK_THRESHOLD = 1 << 14;
+
+    private final String source;
+    private final ForkJoinPool pool;
+    private int chunkSize = ParallelLexer.DEFAULT_MIN_CHUNK_SIZE;
+    private int taskThreshold = DEFAULT_TASK_THRESHOLD;
+
+    private TokenBuffer tokens;
+    private ObjectValue object = new ObjectValue();
+    // shared by every task, Shape is thread safe
+    private final Shape shapes = Shape.root();
+    private List<LexerError> lexerErrors = new ArrayList<>();
+    private List<SyntaxError> errors = new ArrayList<>();
+
+    public ParallelParser(String source, ForkJoinPool pool) {
+        this.source = source;
+        this.pool = pool;
+    }
+
+    public ParallelParser(String source) {
+        this(source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param chunkSize minimum number of characters lexed by one task
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param taskThreshold minimum number of tokens parsed by one task
+     */
+    public void setTaskThreshold(int taskThreshold) {
+        this.taskThreshold = Math.max(taskThreshold, 2);
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<LexerError> getLexerErrors() {
+        return lexerErrors;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * lexes and parses the source. if lexical errors are found the source is not parsed
+     */
+    public void parse() {
+        ParallelLexer lexer = new ParallelLexer(source, pool, chunkSize);
+        lexer.lexTokens();
+        lexerErrors = new ArrayList<>(lexer.getErrors());
+        if (!lexerErrors.isEmpty()) return;
+
+        tokens = lexer.getTokenBuffer();
+
+        // like Parser, only the top level object is parsed and whatever follows it is ignored
+        int end = tokens.type(0) == OPEN_BRACE ? valueEnd(0) : -1;
+        Value value = end < 0 ? null : pool.invoke(new ParseTask(0, end));
+
+        if (value instanceof ObjectValue parsed) {
+            object = parsed;
+        } else {
+            parseSequentially();
+        }
+    }
+
+    private void parseSequentially() {
+        Parser parser = new Parser(tokens);
+        parser.parse();
+        object = parser.getObject();
+        errors = parser.getErrors();
+    }
+
+    /**
+     * @param start index of the first token of a value
+     * @return index after the last token of the value, -1 if it is not closed
+     */
+    private int valueEnd(int start) {
+        TokenType type = tokens.type(start);
+        if (type != OPEN_BRACE && type != OPEN_SQUARE_BRACKET) return start + 1;
+
+        int depth = 0;
+        for (int i = start; i < tokens.size(); i++) {
+            switch (tokens.type(i)) {
+                case OPEN_BRACE, OPEN_SQUARE_BRACKET -> depth++;
+                case CLOSE_BRACE, CLOSE_SQUARE_BRACKET -> {
+                    if (--depth == 0) return i + 1;
+                }
+                default -> {}
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * parses the value spanning the tokens from start to end
+     * returns null if the value is not valid, the document is then parsed sequentially
+     */
+    private class ParseTask extends RecursiveTask<Value> {
+        private final int start;
+        private final int end;
+
+        ParseTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Value compute() {
+            if (end - start < taskThreshold) return parseRange(start, end, null);
+
+            boolean isObject = tokens.type(start) == OPEN_BRACE;
+            List<String> keys = new ArrayList<>();
+            List<Integer> childStarts = new ArrayList<>();
+            List<Integer> childEnds = new ArrayList<>();
+
+            // split the container into its children, anything unusual is left to the sequential parser
+            int i = start + 1;
+            if (tokens.type(i) != (isObject ? CLOSE_BRACE : CLOSE_SQUARE_BRACKET)) {
+                while (true) {
+                    if (isObject) {
+                        if (tokens.type(i) != STRING || tokens.type(i + 1) != COLON) return null;
+                        keys.add((String) tokens.literal(i));
+                        i += 2;
+                    }
+                    int childEnd = valueEnd(i);
+                    if (childEnd < 0 || childEnd >= end) return null;
+                    childStarts.add(i);
+                    childEnds.add(childEnd);
+                    i = childEnd;
+                    if (tokens.type(i) != COMMA) break;
+                    i++;
+                }
+            }
+            // valueEnd() does not match closers to openers, so [1} ends here too
+            if (i != end - 1 || tokens.type(i) != (isObject ? CLOSE_BRACE : CLOSE_SQUARE_BRACKET)) return null;
+
+            List<RecursiveTask<List<Value>>> tasks = new ArrayList<>();
+            int batchStart = 0;
+            for (int child = 0; child <= childStarts.size(); child++) {
+                boolean last = child == childStarts.size();
+                boolean big = !last && childEnds.get(child) - childStarts.get(child) >= taskThreshold;
+                int batchTokens = child == batchStart ? 0 : childEnds.get(child - 1) - childStarts.get(batchStart);
+
+                if (batchTokens > 0 && (last || big || batchTokens >= taskThreshold)) {
+                    tasks.add(new BatchTask(childStarts, childEnds, batchStart, child));
+                    batchStart = child;
+                }
+                if (big) {
+                    tasks.add(new SingleTask(new ParseTask(childStarts.get(child), childEnds.get(child))));
+                    batchStart = child + 1;
+                }
+            }
+            invokeAll(tasks);
+
+            List<Value> children = new ArrayList<>(childStarts.size());
+            for (var task : tasks) {
+                List<Value> values = task.join();
+                if (values == null) return null;
+                children.addAll(values);
+            }
+
+            if (isObject) {
+                ObjectValue parsed = new ShapedObjectValue(shapes);
+                for (int child = 0; child < children.size(); child++) {
+                    parsed.addMember(keys.get(child), children.get(child));
+                }
+                return parsed;
+            }
+            ArrayValue parsed = new PackedArrayValue();
+            for (Value child : children) {
+                parsed.addValue(child);
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * parses consecutive children of a container with a sequential Parser each
+     */
+    private class BatchTask extends RecursiveTask<List<Value>> {
+        private final List<Integer> starts;
+        private final List<Integer> ends;
+        private final int from;
+        private final int to;
+
+        BatchTask(List<Integer> starts, List<Integer> ends, int from, int to) {
+            this.starts = starts;
+            this.ends = ends;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Value> compute() {
+            List<Value> values = new ArrayList<>(to - from);
+            // the children are often records of the same keys, they share one cache instead of a Parser each
+            KeyCache keys = new KeyCache();
+            for (int child = from; child < to; child++) {
+                Value value = parseRange(starts.get(child), ends.get(child), keys);
+                if (value == null) return null;
+                values.add(value);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * wraps a ParseTask so it can be joined like a BatchTask
+     */
+    private static class SingleTask extends RecursiveTask<List<Value>> {
+        private final ParseTask task;
+
+        SingleTask(ParseTask task) {
+            this.task = task;
+        }
+
+        @Override
+        protected List<Value> compute() {
+            Value value = task.compute();
+            return value == null ? null : List.of(value);
+        }
+    }
+
+    /**
+     * @param keys cache of member keys, null for a cache of the parser's own
+     * @return the value spanning the tokens from start to end, null if they are not exactly one valid value
+     */
+    private Value parseRange(int start, int end, KeyCache keys) {
+        Parser parser = new Parser(tokens, start, shapes);
+        parser.setKeyCache(keys);
+        Value value = parser.parseValue();
+        return parser.getCurrent() == end ? value : null;
+    }
+}
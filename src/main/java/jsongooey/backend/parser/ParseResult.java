@@ -0,0 +1,19 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.LexerError;
+
+import java.util.List;
+
+/**
+ * what a JsonParsingService parse produced
+ * @param object the top level object, empty if the source has lexical errors or does not start with an object
+ * @param lexerErrors lexical errors, the source is not parsed if there are any
+ * @param errors syntax errors
+ */
+public record ParseResult(ObjectValue object, List<LexerError> lexerErrors, List<SyntaxError> errors) {
+
+    public boolean hasErrors() {
+        return !lexerErrors.isEmpty() || !errors.isEmpty();
+    }
+}
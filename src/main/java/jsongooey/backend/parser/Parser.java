@@ -1,70 +1,125 @@
 package jsongooey.backend.parser;
 
 import jsongooey.backend.jsonmodel.*;
+import jsongooey.backend.lexer.KeyCache;
 import jsongooey.backend.lexer.Token;
+import jsongooey.backend.lexer.TokenBuffer;
 import jsongooey.backend.lexer.TokenType;
 
 import static jsongooey.backend.lexer.TokenType.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
- *  Constructed with a List of Token objects.
+ *  Constructed with a TokenBuffer, or a List of Token objects which is copied into one.
+ *  Tokens are read by index, no Token objects are created while parsing.
  *  After calling parse() fills the object field with the top level object, and the errors field with Syntax errors found.
+ *  values are built directly by a recursive descent that dispatches once on the type of each token.
  *  currently only the first syntax error is reported.
  *  Does not signal when error occured, must be checked manually.
  */
 public class Parser {
-    private final List<Token> tokens;
+    /**
+     * longest string value that is interned, see setInternValues()
+     */
+    public static final int MAX_INTERNED_VALUE_LENGTH = 16;
+    private static final int VALUE_CACHE_CAPACITY = 256;
+
+    private TokenBuffer tokens;
+    // made for each parse unless one was set with setKeyCache()
+    private KeyCache keyCache;
+    private boolean sharedKeyCache = false;
+    // null unless string values are interned
+    private KeyCache valueCache;
     private ObjectValue object =  new ObjectValue();
+    // shapes of the objects of this parse, see ShapedObjectValue
+    private Shape shapes = Shape.root();
 
     private int current = 0;
 
     private List<SyntaxError> errors = new ArrayList<>();
 
+    public Parser(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
     public Parser(List<Token> tokens) {
+        this(TokenBuffer.of(tokens));
+    }
+
+    /**
+     * parses a single value starting at a given token, used by ParallelParser
+     * @param tokens the whole token buffer
+     * @param start index of the first token of the value
+     * @param shapes shapes shared by the parsers of the document
+     */
+    Parser(TokenBuffer tokens, int start, Shape shapes) {
         this.tokens = tokens;
+        this.current = start;
+        this.shapes = shapes;
     }
 
-    public ObjectValue getObject() {
-        return object;
+    /**
+     * makes the parser parse another token buffer, so a pooled parser can be reused.
+     * the object and errors of the previous parse are left to whoever holds them
+     * @param tokens the new tokens
+     */
+    public void reset(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.current = 0;
+        this.object = new ObjectValue();
+        this.shapes = Shape.root();
+        if (!sharedKeyCache) keyCache = null;
+        if (valueCache != null) valueCache.clear();
+        if (!errors.isEmpty()) errors = new ArrayList<>();
     }
 
-    public List<SyntaxError> getErrors() {
-        return errors;
+    /**
+     * member keys are always interned, so a key repeated in the document is one String.
+     * by default each parse interns them in a KeyCache of its own
+     * @param keyCache cache shared between parses that member keys are looked up in, null for a cache per parse
+     */
+    public void setKeyCache(KeyCache keyCache) {
+        this.keyCache = keyCache;
+        this.sharedKeyCache = keyCache != null;
     }
 
     /**
-     * @return whether the current pointer has reached the end of the source code
+     * @param intern whether string values of up to MAX_INTERNED_VALUE_LENGTH characters are interned for the parse,
+     * like keys. worth it for documents that repeat short values like enums or country codes, off by default
      */
-    private boolean isAtEnd() {
-        return current >= tokens.size();
+    public void setInternValues(boolean intern) {
+        valueCache = intern ? new KeyCache(VALUE_CACHE_CAPACITY, MAX_INTERNED_VALUE_LENGTH) : null;
+    }
+
+    public ObjectValue getObject() {
+        return object;
+    }
+
+    public List<SyntaxError> getErrors() {
+        return errors;
     }
 
     /**
-     * advances the current pointer, consuming a token
-     * @return the token consumed
+     * advances the current pointer, consuming a token. the final EOF token is never consumed
      */
-    private Token advance() {
-        if (isAtEnd()) return tokens.get(current);
-        return tokens.get(current++);
+    private void advance() {
+        if (current < tokens.size() - 1) current++;
     }
 
     /**
-     * @return the next token to be consumed
+     * @return the type of the next token to be consumed
      */
-    private Token peek() {
-        if (isAtEnd()) return tokens.get(current);
-        return tokens.get(current);
+    private TokenType peek() {
+        return tokens.type(current);
     }
 
     /**
-     * @return the token that was just consumed
+     * @return the literal of the token that was just consumed
      */
-    private Token peekPrevious() {
-        return tokens.get(current - 1);
+    private Object previousLiteral() {
+        return tokens.literal(current - 1);
     }
 
     /**
@@ -73,7 +128,7 @@ public class Parser {
      * @return whether a token was consumed
      */
     private boolean match(TokenType type) {
-        if (peek().getType() != type)
+        if (peek() != type)
             return false;
         else {
             advance();
@@ -81,28 +136,14 @@ public class Parser {
         }
     }
 
-    /**
-     * check if the next token is of a number of given types. does not consume
-     * @param types the types to check against
-     * @return whether the next token is any type of types
-     */
-    private boolean check(TokenType... types) {
-        for (TokenType type : types) {
-            if (peek().getType() == type) return true;
-        }
-        return false;
-    }
-
     /**
      * consumes next token of expected type, if unexpected adds error with message errorMessage to field errors and throws exception
      * @param type type to check against
      * @param errorMessage message of error added to errors if the token does not match
-     * @return the next token if matched
      * @throws SyntaxErrorException if the next token is not of expected type
      */
-    private Token mustMatch(TokenType type, String errorMessage) {
+    private void mustMatch(TokenType type, String errorMessage) {
         if (!match(type)) report(errorMessage);
-        return peekPrevious();
     }
 
     /**
@@ -110,181 +151,159 @@ public class Parser {
      * @param type type of token to skip to
      */
     private void skipTo(TokenType type) {
-        while (peek().getType() != type) advance() ;
-    }
-
-    /**
-     * parses a string token
-     * @return Optional of a StringValue object if successful, else empty
-     */
-    private Optional<StringValue> string() {
-        if (match(STRING)) return Optional.of(new StringValue( (String) peekPrevious().getLiteral() ));
-        return Optional.empty();
-    }
-
-    /**
-     * parses a number token
-     * @return Optional of a NumberValue object if successful, else empty
-     */
-    private Optional<NumberValue> number() {
-        if (match(NUMBER)) return Optional.of(new NumberValue( (double) peekPrevious().getLiteral() ));
-        return Optional.empty();
-    }
-
-    /**
-     * parses a boolean token
-     * @return Optional of a BooleanValue object if successful, else empty
-     */
-    private Optional<BooleanValue> booleanValue() {
-        if (check(FALSE, TRUE)) {
-            advance();
-            return Optional.of(new BooleanValue( (boolean) peekPrevious().getLiteral() ));
-        }
-        return Optional.empty();
+        while (peek() != type && peek() != EOF) advance() ;
     }
 
     /**
-     * parses a null token
-     * @return Optional of a NullValue object if successful, else empty
+     * parses an array, the opening bracket is the next token
+     * @return the ArrayValue, holding the values parsed so far if a syntax error was found
      */
-    private Optional<NullValue> nullValue() {
-        if (match(NULL)) return Optional.of(new NullValue());
-        return Optional.empty();
-    }
+    private ArrayValue array() throws SyntaxErrorException {
+        advance(); // [
 
-    /**
-     * parses an array
-     * @return Optional of a ArrayValue object if successful, else empty
-     */
-    private Optional<ArrayValue> array() throws SyntaxErrorException {
-        if (!match(OPEN_SQUARE_BRACKET)) return Optional.empty();
+        ArrayValue array = new PackedArrayValue();
 
-        ArrayValue array = new ArrayValue();
-
-        Optional<Value> newValue = Optional.empty();
+        Value newValue;
 
         try {
             newValue = value();
-        } catch (SyntaxErrorException e) {
-            return Optional.of(array);
+        } catch (SyntaxErrorException _) {
+            return array;
         }
 
-        while(newValue.isPresent()) {
-            array.addValue(newValue.get());
+        while (newValue != null) {
+            array.addValue(newValue);
 
             if (!match(COMMA)) break;
 
             try {
                 newValue = value();
             } catch (SyntaxErrorException _) {
-                return Optional.of(array);
+                return array;
             }
         }
 
         mustMatch(CLOSE_SQUARE_BRACKET, "array unclosed");
 
-        return Optional.of(array);
+        return array;
     }
 
     /**
-     * parses an object member (key value pair), meant to be used in parsing an object
-     * @return Optional of a Member object if successful, else empty
+     * parses an object member (key value pair) and adds it to an object
+     * @param object the object the member belongs to
+     * @return whether a member was found
      */
-    private Optional<Member> member() throws SyntaxErrorException {
-        if (!match(STRING)) return Optional.empty();
-        String key = (String) peekPrevious().getLiteral();
+    private boolean member(ObjectValue object) throws SyntaxErrorException {
+        if (!match(STRING)) return false;
+        if (keyCache == null) keyCache = new KeyCache();
+        String key = keyCache.get(tokens, current - 1);
 
         mustMatch(COLON, "colon not found after key name");
 
-        Optional<Value> value = value();
-        if (value.isPresent()) {
-            return Optional.of(new Member(key, value.get()));
-        } else {
-            report("value not found in object member");
-            return Optional.empty(); // unreachable
-        }
+        Value value = value();
+        if (value == null) report("value not found in object member");
+
+        object.addMember(key, value);
+        return true;
     }
 
     /**
-     * parses an object
-     * @return Optional of a ObjectValue object if successful, else empty
+     * parses an object, the opening brace is the next token
+     * @return the ObjectValue, holding the members parsed so far if a syntax error was found
      */
-    private Optional<ObjectValue> object() throws SyntaxErrorException {
-        if(!match(OPEN_BRACE)) return Optional.empty();
+    private ObjectValue object() throws SyntaxErrorException {
+        advance(); // {
 
-        ObjectValue newObject = new ObjectValue();
-        Optional<Member> member = Optional.empty();
+        ObjectValue newObject = new ShapedObjectValue(shapes);
+        boolean found;
         try {
-            member = member();
+            found = member(newObject);
         } catch (SyntaxErrorException _) {
-            return Optional.of(newObject);
+            return newObject;
         }
 
-        if (member.isPresent()) {
-            newObject.addMember(member.get());
-
-            while(match(COMMA)) {
+        if (found) {
+            while (match(COMMA)) {
                 try {
-                    member = member();
+                    found = member(newObject);
                 } catch (SyntaxErrorException _) {
-                    return Optional.of(newObject);
+                    return newObject;
                 }
 
-                if (member.isEmpty()) report("object has trailing comma");
-                else newObject.addMember(member.get());
+                if (!found) report("object has trailing comma");
             }
-
         }
 
         mustMatch(CLOSE_BRACE, "object not terminated by closing brace");
 
-        return Optional.of(newObject);
+        return newObject;
     }
 
     /**
-     * parses a value (in key value pair aka member)
-     * @return Optional of a Value object if successful, else empty
+     * parses a value (in key value pair aka member), dispatching once on the type of the next token
+     * @return the Value, or null if the next token does not start a value
      */
-    private Optional<Value> value() {
-        Optional<Value> newValue;
-
-        newValue = object().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        newValue = array().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        newValue = number().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        newValue = string().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        newValue = booleanValue().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        newValue = nullValue().map(v -> (Value) v);
-        if (newValue.isPresent()) return newValue;
-
-        return Optional.empty();
+    private Value value() {
+        return switch (peek()) {
+            case OPEN_BRACE -> object();
+            case OPEN_SQUARE_BRACKET -> array();
+            case NUMBER -> {
+                advance();
+                yield new NumberValue((Number) previousLiteral());
+            }
+            case STRING -> {
+                advance();
+                yield new StringValue(valueCache == null ? (String) previousLiteral() : valueCache.get(tokens, current - 1));
+            }
+            case TRUE, FALSE -> {
+                advance();
+                yield BooleanValue.of((boolean) previousLiteral());
+            }
+            case NULL -> {
+                advance();
+                yield NullValue.NULL;
+            }
+            default -> null;
+        };
     }
 
     /**
-     * adds a SyntaxError object to errors field and throws exception
+     * adds a SyntaxError object to errors field and throws exception.
+     * SyntaxErrorException has no stack trace, so unwinding is cheap
      * @param message error messsage
      * @throws SyntaxErrorException
      */
     private void report(String message) throws SyntaxErrorException {
-        errors.add(new SyntaxError(message, peek().getLine()));
+        errors.add(new SyntaxError(message, tokens.line(current)));
         throw new SyntaxErrorException();
     }
 
 
+    /**
+     * parses the single value at the current token, used by ParallelParser
+     * @return the value, or null if there is none or a syntax error was found
+     */
+    Value parseValue() {
+        try {
+            Value value = value();
+            return errors.isEmpty() ? value : null;
+        } catch (SyntaxErrorException _) {
+            return null;
+        }
+    }
+
+    /**
+     * @return index of the next token to be consumed
+     */
+    int getCurrent() {
+        return current;
+    }
+
     /**
      * wrapper parse function. parses the top level object
      */
     public void parse() {
-        object = object().orElse(new ObjectValue());
+        object = peek() == OPEN_BRACE ? object() : new ObjectValue();
     }
 
 }
@@ -0,0 +1,115 @@
+package jsongooey.backend.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * a path into a document, as a list of segments. a segment is a member key or an array index,
+ * or a wildcard that matches every member or element.
+ * <p>
+ * parsed from a JSON Pointer, with * as the wildcard extension: /items/&#42;/id, or the empty string for the whole document.
+ * or from simple JSONPath: $.meta.version, $.items[*].id, $.items[0], $['odd key'], $.* (no recursive descent, no filters)
+ */
+public final class PathSelector {
+    private final String source;
+    // null segments are wildcards
+    private final List<String> segments;
+
+    private PathSelector(String source, List<String> segments) {
+        this.source = source;
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * @param selector JSON Pointer or JSONPath
+     * @throws IllegalArgumentException if the selector is not valid
+     */
+    public static PathSelector parse(String selector) {
+        if (selector.isEmpty() || selector.startsWith("/")) return new PathSelector(selector, pointer(selector));
+        if (selector.startsWith("$")) return new PathSelector(selector, jsonPath(selector));
+        throw new IllegalArgumentException("selector must start with / or $: " + selector);
+    }
+
+    /**
+     * @return number of segments, 0 selects the whole document
+     */
+    public int size() {
+        return segments.size();
+    }
+
+    /**
+     * @param segment index of the segment
+     * @param key member key or array index
+     * @return whether the segment matches the key
+     */
+    public boolean matches(int segment, String key) {
+        String expected = segments.get(segment);
+        return expected == null || expected.equals(key);
+    }
+
+    /**
+     * @return JSON Pointer of a concrete path, with ~ and / escaped
+     */
+    public static String pointer(List<String> path) {
+        StringBuilder pointer = new StringBuilder();
+        for (String key : path) {
+            pointer.append('/').append(key.replace("~", "~0").replace("/", "~1"));
+        }
+        return pointer.toString();
+    }
+
+    private static List<String> pointer(String selector) {
+        List<String> segments = new ArrayList<>();
+        if (selector.isEmpty()) return segments;
+
+        for (String token : selector.substring(1).split("/", -1)) {
+            segments.add(token.equals("*") ? null : token.replace("~1", "/").replace("~0", "~"));
+        }
+        return segments;
+    }
+
+    private static List<String> jsonPath(String selector) {
+        List<String> segments = new ArrayList<>();
+        int i = 1;
+        while (i < selector.length()) {
+            char c = selector.charAt(i);
+            if (c == '.') {
+                if (selector.startsWith("..", i)) throw invalid(selector, "recursive descent is not supported");
+                int end = i + 1;
+                while (end < selector.length() && selector.charAt(end) != '.' && selector.charAt(end) != '[') end++;
+                if (end == i + 1) throw invalid(selector, "empty name");
+                String name = selector.substring(i + 1, end);
+                segments.add(name.equals("*") ? null : name);
+                i = end;
+            } else if (c == '[') {
+                int close = selector.indexOf(']', i);
+                if (close < 0) throw invalid(selector, "unclosed [");
+                String inside = selector.substring(i + 1, close).trim();
+                if (inside.equals("*")) {
+                    segments.add(null);
+                } else if (inside.length() >= 2 && (inside.charAt(0) == '\'' || inside.charAt(0) == '"')
+                        && inside.charAt(inside.length() - 1) == inside.charAt(0)) {
+                    segments.add(inside.substring(1, inside.length() - 1));
+                } else if (!inside.isEmpty() && inside.chars().allMatch(Character::isDigit)) {
+                    segments.add(inside);
+                } else {
+                    throw invalid(selector, "unsupported subscript [" + inside + "]");
+                }
+                i = close + 1;
+            } else {
+                throw invalid(selector, "unexpected character " + c);
+            }
+        }
+        return segments;
+    }
+
+    private static IllegalArgumentException invalid(String selector, String reason) {
+        return new IllegalArgumentException("invalid selector " + selector + ": " + reason);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -1,6 +1,11 @@
 package jsongooey.backend.parser;
 
 /**
- * used to backtrack if a Syntax error is found
+ * used to backtrack if a Syntax error is found.
+ * it is control flow only, so it skips filling in a stack trace
  */
-public class SyntaxErrorException extends RuntimeException { }
+public class SyntaxErrorException extends RuntimeException {
+    public SyntaxErrorException() {
+        super(null, null, false, false);
+    }
+}
@@ -0,0 +1,64 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Tape;
+
+/**
+ * JsonHandler that writes the events to a Tape, so a document can be parsed into a tape
+ * without building the Value tree first: new EventParser(source, builder).parse()
+ */
+public class TapeBuilder implements JsonHandler {
+    private final Tape.Writer writer = new Tape.Writer();
+
+    /**
+     * @return the tape of the document
+     * @throws IllegalStateException if the events stopped early, because of a syntax error
+     */
+    public Tape getTape() {
+        return writer.getTape();
+    }
+
+    @Override
+    public void startObject() {
+        writer.startObject();
+    }
+
+    @Override
+    public void endObject() {
+        writer.endObject();
+    }
+
+    @Override
+    public void startArray() {
+        writer.startArray();
+    }
+
+    @Override
+    public void endArray() {
+        writer.endArray();
+    }
+
+    @Override
+    public void key(String key) {
+        writer.key(key);
+    }
+
+    @Override
+    public void stringValue(String value) {
+        writer.stringValue(value);
+    }
+
+    @Override
+    public void numberValue(Number value) {
+        writer.numberValue(value);
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+        writer.booleanValue(value);
+    }
+
+    @Override
+    public void nullValue() {
+        writer.nullValue();
+    }
+}
@@ -0,0 +1,108 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JsonHandler that builds the Value tree from the events, this is how IterativeParser builds its model.
+ * the open containers are kept on a heap stack, so no recursion is involved
+ */
+public class ValueBuilder implements JsonHandler {
+    private final Shape shapes;
+    private Value value;
+
+    // open containers, innermost last, with the key of the member being parsed for objects
+    private final List<Value> containers = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+
+    public ValueBuilder() {
+        this(Shape.root());
+    }
+
+    /**
+     * @param shapes shapes of the objects, shared with other builders so that records of the same keys share them
+     */
+    public ValueBuilder(Shape shapes) {
+        this.shapes = shapes;
+    }
+
+    /**
+     * containers are added to their parent as soon as they start, so if the events stopped early
+     * because of a syntax error, this holds everything built up to that point
+     * @return the value of the document, null if there was no event
+     */
+    public Value getValue() {
+        return value;
+    }
+
+    @Override
+    public void startObject() {
+        open(new ShapedObjectValue(shapes));
+    }
+
+    @Override
+    public void endObject() {
+        close();
+    }
+
+    @Override
+    public void startArray() {
+        open(new PackedArrayValue());
+    }
+
+    @Override
+    public void endArray() {
+        close();
+    }
+
+    @Override
+    public void key(String key) {
+        keys.set(keys.size() - 1, key);
+    }
+
+    @Override
+    public void stringValue(String value) {
+        add(new StringValue(value));
+    }
+
+    @Override
+    public void numberValue(Number value) {
+        add(new NumberValue(value));
+    }
+
+    @Override
+    public void booleanValue(boolean value) {
+        add(BooleanValue.of(value));
+    }
+
+    @Override
+    public void nullValue() {
+        add(NullValue.NULL);
+    }
+
+    private void open(Value container) {
+        add(container);
+        containers.add(container);
+        keys.add(null);
+    }
+
+    private void close() {
+        containers.removeLast();
+        keys.removeLast();
+    }
+
+    /**
+     * adds a value to the innermost open container, or makes it the value of the document
+     */
+    private void add(Value child) {
+        if (containers.isEmpty()) {
+            value = child;
+        } else if (containers.getLast() instanceof ObjectValue object) {
+            object.addMember(keys.getLast(), child);
+        } else {
+            ((ArrayValue) containers.getLast()).addValue(child);
+        }
+    }
+}
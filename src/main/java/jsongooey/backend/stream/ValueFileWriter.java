@@ -0,0 +1,125 @@
+package jsongooey.backend.stream;
+
+import jsongooey.backend.jsonmodel.PrintVisitor;
+import jsongooey.backend.jsonmodel.Value;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Flow.Subscriber that writes the values it receives to a file, serialized by a compact PrintVisitor,
+ * one value per line (NDJSON) or as the elements of one json array.
+ * it requests a batch of values at a time, so only a batch is ever held in memory.
+ * getResult() completes with the number of values written when the publisher completes
+ */
+public class ValueFileWriter implements Flow.Subscriber<Value> {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Path file;
+    private final boolean array;
+    private final int batchSize;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private Writer writer;
+    private final PrintVisitor printer = PrintVisitor.compact();
+    private long written = 0;
+    private int received = 0;
+
+    /**
+     * @param file created or truncated when subscribed
+     * @param array whether the values are written as one json array, else one per line
+     * @param batchSize number of values requested at a time
+     */
+    public ValueFileWriter(Path file, boolean array, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        this.file = file;
+        this.array = array;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * writes one value per line
+     */
+    public ValueFileWriter(Path file) {
+        this(file, false, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @return completes with the number of values written, or exceptionally if the publisher or the file failed
+     */
+    public CompletableFuture<Long> getResult() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        try {
+            writer = Files.newBufferedWriter(file);
+            if (array) writer.write('[');
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(Value value) {
+        if (result.isDone()) return;
+        try {
+            if (array && written > 0) writer.write(',');
+            writer.write(value.accept(printer));
+            if (!array) writer.write('\n');
+            written++;
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+
+        if (++received == batchSize) {
+            received = 0;
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        close();
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        try {
+            if (array) writer.write("]\n");
+            writer.close();
+            result.complete(written);
+        } catch (IOException e) {
+            onError(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        subscription.cancel();
+        onError(e);
+    }
+
+    private void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException _) {
+            // the first error is the one reported
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package jsongooey.backend.stream;
+
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.lexer.StreamingLexer;
+import jsongooey.backend.parser.JsonReader;
+import jsongooey.backend.parser.JsonToken;
+import jsongooey.backend.parser.MalformedJsonException;
+import jsongooey.backend.parser.NdjsonParser;
+import jsongooey.backend.parser.NdjsonRecord;
+import jsongooey.backend.parser.SyntaxError;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flow.Publisher of the elements of a top level array, or of the records of an NDJSON source.
+ * a value is parsed only when the subscriber has demand for it, so memory stays bounded by the request size
+ * however big the source is. values are parsed and signalled on the Executor, one signal at a time.
+ * <p>
+ * the source can be read once, so there is a single subscription. malformed input ends it with onError,
+ * with a MalformedJsonException, for NDJSON at the first record that has an error
+ */
+public class ValuePublisher implements Flow.Publisher<Value> {
+
+    /**
+     * pulls the values, called by one thread at a time
+     */
+    private interface Source extends Closeable {
+        boolean hasNext() throws IOException;
+
+        Value next() throws IOException;
+    }
+
+    private final Source source;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private ValuePublisher(Source source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    /**
+     * publishes the elements of the top level array of a source, lexed with a StreamingLexer
+     * @param reader the source, closed when the subscription ends
+     * @param executor runs the parsing and the signals
+     */
+    public static ValuePublisher ofArray(Reader reader, Executor executor) {
+        StreamingLexer lexer = new StreamingLexer(reader);
+        JsonReader json = new JsonReader(lexer);
+
+        return new ValuePublisher(new Source() {
+            private boolean started = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    started = true;
+                    if (json.peek() != JsonToken.BEGIN_ARRAY) throw new MalformedJsonException("array expected", json.getLine());
+                    json.beginArray();
+                }
+                if (json.hasNext()) return true;
+                json.endArray();
+                return false;
+            }
+
+            @Override
+            public Value next() {
+                return json.nextValue();
+            }
+
+            @Override
+            public void close() throws IOException {
+                lexer.close();
+            }
+        }, executor);
+    }
+
+    /**
+     * publishes the elements of the top level array of a source, parsing on a new virtual thread per request
+     */
+    public static ValuePublisher ofArray(Reader reader) {
+        return ofArray(reader, ValuePublisher::startVirtual);
+    }
+
+    /**
+     * publishes the values of the records of an NDJSON source
+     * @param parser the records, closed when the subscription ends. its capacity is how far it parses ahead of demand
+     * @param executor runs the signals, it may block on the parser
+     */
+    public static ValuePublisher ofNdjson(NdjsonParser parser, Executor executor) {
+        return new ValuePublisher(new Source() {
+            @Override
+            public boolean hasNext() {
+                return parser.hasNext();
+            }
+
+            @Override
+            public Value next() {
+                NdjsonRecord record = parser.next();
+                if (!record.lexerErrors().isEmpty()) {
+                    LexerError error = record.lexerErrors().getFirst();
+                    throw new MalformedJsonException(error.message(), error.line());
+                }
+                if (!record.errors().isEmpty()) {
+                    SyntaxError error = record.errors().getFirst();
+                    throw new MalformedJsonException(error.message(), error.line());
+                }
+                return record.value();
+            }
+
+            @Override
+            public void close() throws IOException {
+                parser.close();
+            }
+        }, executor);
+    }
+
+    /**
+     * publishes the values of the records of an NDJSON source, signalling on a new virtual thread per request
+     */
+    public static ValuePublisher ofNdjson(NdjsonParser parser) {
+        return ofNdjson(parser, ValuePublisher::startVirtual);
+    }
+
+    private static void startVirtual(Runnable task) {
+        Thread.ofVirtual().start(task);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Value> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("the source was already subscribed to"));
+            return;
+        }
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Value> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // number of drain requests, only the thread raising it from 0 drains
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest;
+        private boolean done = false;
+
+        Subscription(Flow.Subscriber<? super Value> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) invalidRequest = new IllegalArgumentException("request must be positive: " + n);
+            else demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) executor.execute(this::drain);
+        }
+
+        /**
+         * parses and signals values while there is demand, the only place that touches the source
+         */
+        private void drain() {
+            do {
+                if (done) continue;
+                if (cancelled) {
+                    end(null, false);
+                    continue;
+                }
+                if (invalidRequest != null) {
+                    end(invalidRequest, true);
+                    continue;
+                }
+
+                try {
+                    while (!cancelled) {
+                        // completion is signalled without waiting for demand
+                        if (!source.hasNext()) {
+                            end(null, true);
+                            break;
+                        }
+                        if (demand.get() == 0) break;
+                        Value value = source.next();
+                        demand.decrementAndGet();
+                        subscriber.onNext(value);
+                    }
+                } catch (RuntimeException | IOException e) {
+                    end(e, true);
+                }
+            } while (work.decrementAndGet() != 0);
+        }
+
+        /**
+         * closes the source and signals the end, onComplete if error is null
+         */
+        private void end(Throwable error, boolean signal) {
+            done = true;
+            try {
+                source.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+            if (!signal) return;
+            if (error == null) subscriber.onComplete();
+            else subscriber.onError(error);
+        }
+    }
+}
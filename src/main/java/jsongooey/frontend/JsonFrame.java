@@ -2,8 +2,10 @@ package jsongooey.frontend;
 
 import jsongooey.backend.jsonmodel.ObjectValue;
 import jsongooey.backend.jsonmodel.PrintVisitor;
-import jsongooey.backend.lexer.Lexer;
-import jsongooey.backend.parser.Parser;
+import jsongooey.backend.lexer.LexerError;
+import jsongooey.backend.parser.FilteredParser;
+import jsongooey.backend.parser.LazyParser;
+import jsongooey.backend.parser.SyntaxError;
 import jsongooey.frontend.jsontree.JsonTree;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
@@ -15,6 +17,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static jsongooey.frontend.jsontree.JsonTree.createRootNode;
 
@@ -28,13 +31,15 @@ import static jsongooey.frontend.jsontree.JsonTree.createRootNode;
  * <p>
  * has import and export buttons and a textfield to write the filepath
  * <p>
- * has a parse button to run the backend parsing algorithm and change the JsonTree model
+ * has a parse button to run the backend parsing algorithm and change the JsonTree model,
+ * and a filter field: when it holds path selectors, only the matching parts of the json are parsed and shown
  */
 public class JsonFrame extends JFrame {
     private JButton importButton = new JButton("Import");
     private JButton exportButton = new JButton("Export");
     private JButton parseButton = new JButton("Parse");
     private JTextField filePathField = new JTextField(30);
+    private JTextField filterField = new JTextField(15);
 
     private JsonTree jsonTree;
     private RSyntaxTextArea textArea;
@@ -63,6 +68,7 @@ public class JsonFrame extends JFrame {
         bottomPanel.add(importButton);
         bottomPanel.add(exportButton);
         bottomPanel.add(parseButton);
+        bottomPanel.add(filterField);
 
 
         importButton.setBackground(darker);
@@ -71,6 +77,7 @@ public class JsonFrame extends JFrame {
         importButton.setForeground(Color.WHITE);
         exportButton.setForeground(Color.WHITE);
         parseButton.setForeground(Color.WHITE);
+        filterField.setToolTipText("parse only these paths, e.g. /items/*/id $.meta.version");
 
         importButton.addActionListener(e -> {
             String filePath = filePathField.getText();
@@ -103,10 +110,40 @@ public class JsonFrame extends JFrame {
 
         parseButton.addActionListener(e -> {
             String text = textArea.getText();
-            Lexer lexer = new Lexer(text);
-            lexer.lexTokens();
-            if (!lexer.getErrors().isEmpty()) {
-                String lexErrorsMsg = lexer.getErrors().stream()
+            String filter = filterField.getText().trim();
+
+            List<LexerError> lexerErrors;
+            List<SyntaxError> syntaxErrors;
+            ObjectValue object;
+            if (filter.isEmpty()) {
+                // containers are decoded when their tree node is expanded
+                LazyParser parser = new LazyParser(text);
+                parser.parse();
+                lexerErrors = parser.getLexerErrors();
+                syntaxErrors = parser.getErrors();
+                object = parser.getObject();
+            } else {
+                // only the subtrees matching the selectors are built
+                FilteredParser parser;
+                try {
+                    parser = new FilteredParser(text, filter.split("\\s+"));
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(
+                            null,
+                            ex.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                    return;
+                }
+                parser.parse();
+                lexerErrors = parser.getLexerErrors();
+                syntaxErrors = parser.getErrors();
+                object = parser.getObject();
+            }
+
+            if (!lexerErrors.isEmpty()) {
+                String lexErrorsMsg = lexerErrors.stream()
                         .map(err -> err.toString() + "\n")
                         .reduce(String::concat)
                         .get();
@@ -120,11 +157,8 @@ public class JsonFrame extends JFrame {
                 return;
             }
 
-            Parser parser = new Parser(lexer.getTokens());
-            parser.parse();
-
-            if (!parser.getErrors().isEmpty()) {
-                String parseErrorMsg = parser.getErrors().getFirst().toString();
+            if (!syntaxErrors.isEmpty()) {
+                String parseErrorMsg = syntaxErrors.getFirst().toString();
                 JOptionPane.showMessageDialog(
                         null,
                         parseErrorMsg,
@@ -134,7 +168,7 @@ public class JsonFrame extends JFrame {
                 return;
             }
 
-            jsonTree.setJsonModel(parser.getObject());
+            jsonTree.setJsonModel(object);
         });
 
         textArea = new RSyntaxTextArea();
@@ -2,15 +2,17 @@ package jsongooey.frontend.jsontree;
 
 import jsongooey.backend.jsonmodel.*;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /**
  * ValueVisitor implementation that visits any backend json value representation and returns with the swing TreeNode representation
  * current implementation returns a list of nodes
  * only the array and object methods return with multiple nodes, with the assumption that the caller takes care of the parent node
- * this is for ease of use, in practice the object method is called, and then it recursively parses the ObjectValue tree
- * and the object method ultimately provides all parent nodes
+ * this is for ease of use, in practice the object method is called, and then it walks the whole ObjectValue tree
+ * (with ValueWalker, not recursion) and the object method ultimately provides all parent nodes
  */
 public class GetNodesVisitor implements ValueVisitor<List<JsonTreeNode>> {
     @Override
@@ -35,45 +37,80 @@ public class GetNodesVisitor implements ValueVisitor<List<JsonTreeNode>> {
 
     @Override
     public List<JsonTreeNode> visit(ObjectValue objectValue) {
+        return childNodes(objectValue);
+    }
+
+    @Override
+    public List<JsonTreeNode> visit(ArrayValue arrayValue) {
+        return childNodes(arrayValue);
+    }
 
-        List<JsonTreeNode> keyNodes = new ArrayList<>();
-        for (var entry : objectValue.getMembers().entrySet())
-        {
-            String key = entry.getKey();
-            Value modelValue = entry.getValue();
-            String valueTypeString = modelValue.accept(new GetValueTypeVisitor());
+    /**
+     * builds the nodes of the children of a container with ValueWalker, so deep trees do not overflow the stack.
+     * object members are labeled with their key, array elements with their index
+     */
+    private List<JsonTreeNode> childNodes(Value container) {
+        JsonTreeNode root = new JsonTreeNode("", "");
+        Deque<JsonTreeNode> parents = new ArrayDeque<>();
 
-            var keyRoot = new  JsonTreeNode("\"" + key + "\"", valueTypeString);
+        ValueWalker.walk(container, new ValueWalker.Listener() {
+            private String label;
 
-            for (var child : modelValue.accept(new GetNodesVisitor()))
-            {
-                keyRoot.add(child);
+            @Override
+            public void startObject(ObjectValue object) {
+                open(object);
             }
 
-            keyNodes.add(keyRoot);
-        }
+            @Override
+            public void endObject(ObjectValue object) {
+                parents.pop();
+            }
 
-        return keyNodes;
-    }
+            @Override
+            public void startArray(ArrayValue array) {
+                open(array);
+            }
 
-    @Override
-    public List<JsonTreeNode> visit(ArrayValue arrayValue) {
+            @Override
+            public void endArray(ArrayValue array) {
+                parents.pop();
+            }
+
+            @Override
+            public void member(String key) {
+                label = "\"" + key + "\"";
+            }
 
-        List <JsonTreeNode> elements = new ArrayList<>();
-        var arrayModel = arrayValue.getArray();
+            @Override
+            public void element(int index) {
+                label = String.valueOf(index);
+            }
 
-        int i = 0;
-        for (var value : arrayModel) {
-            var elementRoot = new JsonTreeNode(String.valueOf(i), value.accept(new GetValueTypeVisitor()));
+            @Override
+            public void scalar(Value value) {
+                var node = new JsonTreeNode(label, value.accept(new GetValueTypeVisitor()));
+                for (var leaf : value.accept(GetNodesVisitor.this)) {
+                    node.add(leaf);
+                }
+                parents.element().add(node);
+            }
 
-            for (var child : value.accept(new GetNodesVisitor())) {
-                elementRoot.add(child);
+            private void open(Value value) {
+                if (parents.isEmpty()) {
+                    parents.push(root);
+                    return;
+                }
+                var node = new JsonTreeNode(label, value.accept(new GetValueTypeVisitor()));
+                parents.element().add(node);
+                parents.push(node);
             }
+        });
 
-            elements.add(elementRoot);
-            i++;
+        List<JsonTreeNode> nodes = new ArrayList<>(root.getChildCount());
+        for (int i = 0; i < root.getChildCount(); i++) {
+            nodes.add((JsonTreeNode) root.getChildAt(i));
         }
-
-        return elements;
+        root.removeAllChildren();
+        return nodes;
     }
 }
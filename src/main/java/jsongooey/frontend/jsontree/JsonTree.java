@@ -1,5 +1,6 @@
 package jsongooey.frontend.jsontree;
 
+import jsongooey.backend.jsonmodel.LazyObjectValue;
 import jsongooey.backend.jsonmodel.ObjectValue;
 
 import javax.swing.*;
@@ -28,11 +29,13 @@ public class JsonTree extends JTree {
     }
 
     /**
-     * uses GetNodesVisitor() to parse backend json tree to a swing TreeModel
+     * uses GetNodesVisitor() to parse backend json tree to a swing TreeModel.
+     * a lazy object from LazyParser gets LazyJsonTreeNodes instead, which are filled when they are expanded
      * @param jsonObject json object to parse
      * @return swing TreeNode representation
      */
     public static JsonTreeNode createRootNode(ObjectValue jsonObject) {
+        if (jsonObject instanceof LazyObjectValue) return new LazyJsonTreeNode("root", "object", jsonObject);
 
         JsonTreeNode root = new JsonTreeNode("root", "object");
 
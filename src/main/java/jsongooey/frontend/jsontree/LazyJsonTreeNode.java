@@ -0,0 +1,93 @@
+package jsongooey.frontend.jsontree;
+
+import jsongooey.backend.jsonmodel.*;
+
+import javax.swing.tree.TreeNode;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * JsonTreeNode of an object or array whose child nodes are only created when the tree asks for them,
+ * that is when the node is expanded. used with the lazy DOM of LazyParser, so a lazy container is decoded
+ * only when its node is expanded, not when the tree is built
+ */
+public class LazyJsonTreeNode extends JsonTreeNode {
+    private Value container;
+
+    /**
+     * @param container ObjectValue or ArrayValue the node represents
+     */
+    public LazyJsonTreeNode(String label, String sublabel, Value container) {
+        super(label, sublabel);
+        this.container = container;
+    }
+
+    /**
+     * @return whether the child nodes were created already
+     */
+    public boolean isLoaded() {
+        return container == null;
+    }
+
+    @Override
+    public int getChildCount() {
+        load();
+        return super.getChildCount();
+    }
+
+    @Override
+    public TreeNode getChildAt(int index) {
+        load();
+        return super.getChildAt(index);
+    }
+
+    @Override
+    public Enumeration<TreeNode> children() {
+        load();
+        return super.children();
+    }
+
+    @Override
+    public boolean isLeaf() {
+        // empty containers are leaves, like in a tree built by GetNodesVisitor, and telling does not decode them
+        return isLoaded() ? super.isLeaf() : isEmpty(container);
+    }
+
+    private void load() {
+        if (container == null) return;
+        Value loading = container;
+        container = null;
+
+        if (loading instanceof ObjectValue object) {
+            for (Map.Entry<String, Value> member : object.getMembers().entrySet()) {
+                add(node("\"" + member.getKey() + "\"", member.getValue()));
+            }
+        } else {
+            int index = 0;
+            for (Value element : ((ArrayValue) loading).getArray()) {
+                add(node(String.valueOf(index++), element));
+            }
+        }
+    }
+
+    private static JsonTreeNode node(String label, Value value) {
+        String type = value.accept(new GetValueTypeVisitor());
+        if (value instanceof ObjectValue || value instanceof ArrayValue) return new LazyJsonTreeNode(label, type, value);
+
+        var node = new JsonTreeNode(label, type);
+        for (var leaf : value.accept(new GetNodesVisitor())) {
+            node.add(leaf);
+        }
+        return node;
+    }
+
+    private static boolean isEmpty(Value container) {
+        return switch (container) {
+            case LazyObjectValue object -> object.isEmpty();
+            case LazyArrayValue array -> array.isEmpty();
+            case ObjectValue object -> object.getMembers().isEmpty();
+            case ArrayValue array -> array.getArray().isEmpty();
+            default -> true;
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package jsongooey;
 
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.parser.Parser;
+
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -13,4 +16,16 @@ public class Util {
             return new String(is.readAllBytes(), StandardCharsets.UTF_8);
         }
     }
+
+    /**
+     * lexes and parses a source with Lexer and Parser, the reference the other parsers are tested against
+     * @return the parser after parse(), holding the object and the errors
+     */
+    public static Parser parser(String source) {
+        Lexer lexer = new Lexer(source);
+        lexer.lexTokens();
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        parser.parse();
+        return parser;
+    }
 }
@@ -0,0 +1,18 @@
+package jsongooey.backend.batch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchMainUnitTest {
+
+    @Test
+    public void maxInFlightBytes() {
+        Assert.assertEquals(64 << 20, BatchMain.maxInFlightBytes("64"));
+        Assert.assertEquals(2047 << 20, BatchMain.maxInFlightBytes("2047"));
+        Assert.assertEquals(-1, BatchMain.maxInFlightBytes("2048"));
+        Assert.assertEquals(-1, BatchMain.maxInFlightBytes("0"));
+        Assert.assertEquals(-1, BatchMain.maxInFlightBytes("-1"));
+        Assert.assertEquals(-1, BatchMain.maxInFlightBytes("64MiB"));
+        Assert.assertEquals(-1, BatchMain.maxInFlightBytes("99999999999"));
+    }
+}
@@ -0,0 +1,75 @@
+package jsongooey.backend.batch;
+
+import jsongooey.backend.parser.SyntaxError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchProcessorUnitTest {
+
+    @Test
+    public void process() throws Exception {
+        Path directory = Files.createTempDirectory("batch");
+        try {
+            Files.createDirectories(directory.resolve("nested"));
+            for (int i = 0; i < 50; i++) {
+                Files.writeString(directory.resolve("nested").resolve(i + ".json"), "{\"id\": " + i + "}");
+            }
+            Files.writeString(directory.resolve("lexical.json"), "{\"a\": tru}");
+            Files.writeString(directory.resolve("syntax.json"), "{\"a\": [1 2]}");
+            Files.writeString(directory.resolve("notes.txt"), "not json");
+
+            BatchProcessor processor = new BatchProcessor();
+            // smaller than some files, so they are processed one at a time
+            processor.setMaxInFlightBytes(10);
+            Map<Path, Object> handled = new ConcurrentHashMap<>();
+            processor.setHandler((path, result) -> handled.put(path, result.object()));
+
+            Map<String, FileResult> results = processor.process(directory).stream()
+                    .collect(Collectors.toMap(result -> result.path().getFileName().toString(), Function.identity()));
+
+            Assert.assertEquals(52, results.size());
+            Assert.assertEquals(52, handled.size());
+            Assert.assertTrue(results.get("7.json").isValid());
+            Assert.assertFalse(results.get("lexical.json").lexerErrors().isEmpty());
+            Assert.assertEquals(List.of(new SyntaxError("array unclosed", 1)), results.get("syntax.json").errors());
+            Assert.assertFalse(results.containsKey("notes.txt"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void handlerFailure() throws Exception {
+        Path directory = Files.createTempDirectory("batch");
+        try {
+            Files.writeString(directory.resolve("a.json"), "{}");
+            BatchProcessor processor = new BatchProcessor();
+            processor.setHandler((path, result) -> {
+                throw new IllegalArgumentException("rejected");
+            });
+
+            FileResult result = processor.process(directory).getFirst();
+            Assert.assertFalse(result.isValid());
+            Assert.assertTrue(result.failure().contains("rejected"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package jsongooey.backend.jsonmodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static jsongooey.Util.parser;
+import static jsongooey.Util.readResourceToString;
+
+public class DeduplicatorUnitTest {
+
+    @Test
+    public void repeatedSubtreesAreShared() {
+        String source = "{\"records\": [{\"id\": 1, \"config\": {\"retries\": 3, \"modes\": [\"a\", \"b\"]}},"
+                + " {\"id\": 2, \"config\": {\"retries\": 3, \"modes\": [\"a\", \"b\"]}},"
+                + " {\"id\": 3, \"config\": {\"retries\": 3, \"modes\": [\"a\", \"b\"]}}]}";
+        Deduplicator deduplicator = new Deduplicator();
+        ObjectValue object = (ObjectValue) deduplicator.deduplicate(parser(source).getObject());
+
+        Assert.assertEquals(parser(source).getObject(), object);
+        List<Value> records = ((ArrayValue) object.getMembers().get("records")).getArray();
+        Value config = ((ObjectValue) records.get(0)).getMembers().get("config");
+        Assert.assertSame(config, ((ObjectValue) records.get(1)).getMembers().get("config"));
+        Assert.assertSame(config, ((ObjectValue) records.get(2)).getMembers().get("config"));
+        Assert.assertNotSame(records.get(0), records.get(1));
+
+        // two configs and the arrays inside them
+        Assert.assertEquals(4, deduplicator.getSharedCount());
+        Assert.assertTrue(deduplicator.getBytesSaved() > 0);
+    }
+
+    @Test
+    public void sameOnlyIfPrintedTheSame() {
+        Deduplicator deduplicator = new Deduplicator();
+        ArrayValue array = new ArrayValue()
+                .addValue(new ObjectValue().addMember("a", 1L).addMember("b", 2L))
+                .addValue(new ObjectValue().addMember("b", 2L).addMember("a", 1L))
+                .addValue(new ArrayValue().addValue(1L))
+                .addValue(new ArrayValue().addValue(1.0));
+
+        deduplicator.deduplicate(array);
+        Assert.assertEquals(0, deduplicator.getSharedCount());
+        Assert.assertEquals("[1.0]", array.getArray().get(3).toString());
+        Assert.assertEquals(List.of("b", "a"), List.copyOf(((ObjectValue) array.getArray().get(1)).getMembers().keySet()));
+    }
+
+    @Test
+    public void sharedAcrossDocuments() throws IOException {
+        String source = readResourceToString("/valid.json");
+        Deduplicator deduplicator = new Deduplicator();
+
+        Value first = deduplicator.deduplicate(parser(source).getObject());
+        Value second = deduplicator.deduplicate(parser(source).getObject());
+        Assert.assertSame(first, second);
+        Assert.assertEquals(parser(source).getObject(), second);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void sharedValuesAreFrozen() {
+        ObjectValue object = (ObjectValue) new Deduplicator().deduplicate(parser("{\"a\": {\"b\": [1, 2]}}").getObject());
+        Assert.assertTrue(object.isFrozen());
+
+        ArrayValue array = (ArrayValue) ((ObjectValue) object.getMembers().get("a")).getMembers().get("b");
+        Assert.assertTrue(array.isFrozen());
+        array.addValue(3L);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void freeze() {
+        ObjectValue object = parser("{\"a\": {\"b\": [1, \"x\"]}}").getObject().freeze();
+        ObjectValue inner = (ObjectValue) object.getMembers().get("a");
+        Assert.assertTrue(inner.isFrozen());
+        Assert.assertTrue(((ArrayValue) inner.getMembers().get("b")).isFrozen());
+        inner.addMember("c", 1L);
+    }
+}
@@ -0,0 +1,82 @@
+package jsongooey.backend.jsonmodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FrozenValueUnitTest {
+
+    /**
+     * scalar that counts how often it is hashed and compared
+     */
+    private static final class CountingValue implements Value {
+        int hashes = 0;
+        int comparisons = 0;
+
+        @Override
+        public <R> R accept(ValueVisitor<R> visitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            comparisons++;
+            return obj instanceof CountingValue;
+        }
+
+        @Override
+        public int hashCode() {
+            hashes++;
+            return 1;
+        }
+    }
+
+    @Test
+    public void hashIsCachedWhenFrozen() {
+        CountingValue leaf = new CountingValue();
+        ObjectValue object = new ObjectValue().addMember("a", new ArrayValue().addValue(leaf).addValue(2L));
+        int mutableHash = object.hashCode();
+        Assert.assertEquals(1, leaf.hashes);
+
+        object.freeze();
+        Assert.assertEquals(mutableHash, object.hashCode());
+        Assert.assertEquals(mutableHash, object.hashCode());
+        Assert.assertEquals(2, leaf.hashes);
+    }
+
+    @Test
+    public void frozenSubtreesAreNotFrozenAgain() {
+        CountingValue leaf = new CountingValue();
+        ArrayValue shared = new ArrayValue().addValue(leaf).freeze();
+        Assert.assertEquals(1, leaf.hashes);
+
+        ObjectValue object = new ObjectValue().addMember("a", shared).addMember("b", shared).freeze();
+        Assert.assertTrue(object.isFrozen());
+        Assert.assertEquals(1, leaf.hashes);
+    }
+
+    @Test
+    public void equalsShortCircuitsOnHash() {
+        CountingValue leaf = new CountingValue();
+        CountingValue otherLeaf = new CountingValue();
+        ArrayValue first = new ArrayValue().addValue(leaf).addValue(1L).freeze();
+        ArrayValue second = new ArrayValue().addValue(otherLeaf).addValue(2L).freeze();
+        Assert.assertFalse(first.equals(second));
+        Assert.assertEquals(0, leaf.comparisons + otherLeaf.comparisons);
+
+        // without the hash check the leaves would be compared first
+        Assert.assertFalse(new ArrayValue().addValue(leaf).addValue(1L).equals(new ArrayValue().addValue(otherLeaf).addValue(2L)));
+        Assert.assertEquals(1, leaf.comparisons + otherLeaf.comparisons);
+    }
+
+    @Test
+    public void frozenEqualToMutable() {
+        ObjectValue mutable = new ObjectValue().addMember("a", new ArrayValue().addValue("x")).addMember("b", 1L);
+        ObjectValue frozen = new ShapedObjectValue(Shape.root())
+                .addMember("a", new PackedArrayValue().addValue("x")).addMember("b", 1L).freeze();
+
+        Assert.assertEquals(mutable, frozen);
+        Assert.assertEquals(frozen, mutable);
+        Assert.assertEquals(mutable.hashCode(), frozen.hashCode());
+        Assert.assertEquals(frozen, new ObjectValue().addMember("a", new ArrayValue().addValue("x")).addMember("b", 1L).freeze());
+    }
+}
@@ -0,0 +1,80 @@
+package jsongooey.backend.jsonmodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static jsongooey.Util.parser;
+
+public class PackedArrayValueUnitTest {
+
+    @Test
+    public void parsedArraysArePacked() {
+        ObjectValue object = parser("{\"longs\": [1, 2, 3], \"doubles\": [1, 2.5, -3], \"mixed\": [1, \"a\"], \"empty\": []}").getObject();
+
+        PackedArrayValue longs = (PackedArrayValue) object.getMembers().get("longs");
+        Assert.assertTrue(longs.isIntegral());
+        Assert.assertEquals(6, longs.doubles().sum(), 0);
+        Assert.assertEquals(3L, longs.getLong(2));
+
+        PackedArrayValue doubles = (PackedArrayValue) object.getMembers().get("doubles");
+        Assert.assertTrue(doubles.isPacked());
+        Assert.assertFalse(doubles.isIntegral());
+        Assert.assertArrayEquals(new double[] {1, 2.5, -3}, doubles.toDoubleArray(), 0);
+        Assert.assertEquals("[1, 2.5, -3]", doubles.toString());
+
+        PackedArrayValue mixed = (PackedArrayValue) object.getMembers().get("mixed");
+        Assert.assertFalse(mixed.isPacked());
+        Assert.assertEquals(new ArrayValue().addValue(1L).addValue("a"), mixed);
+        Assert.assertEquals(1L, mixed.getLong(0));
+
+        Assert.assertEquals(0, ((PackedArrayValue) object.getMembers().get("empty")).size());
+    }
+
+    @Test
+    public void equalToGenericArray() {
+        ArrayValue generic = new ArrayValue().addValue(1L).addValue(2.5).addValue(3L);
+        ArrayValue packed = new PackedArrayValue().addValue(1L).addValue(2.5).addValue(3L);
+
+        Assert.assertEquals(generic, packed);
+        Assert.assertEquals(packed, generic);
+        Assert.assertEquals(generic.hashCode(), packed.hashCode());
+        Assert.assertEquals(generic.accept(new PrintVisitor()), packed.accept(new PrintVisitor()));
+    }
+
+    @Test
+    public void unpacksWhenPackingIsNotExact() {
+        PackedArrayValue big = new PackedArrayValue();
+        big.addValue(Long.MAX_VALUE).addValue(0.5);
+        Assert.assertFalse(big.isPacked());
+        Assert.assertEquals(new NumberValue(Long.MAX_VALUE), big.getArray().getFirst());
+
+        PackedArrayValue decimal = new PackedArrayValue();
+        decimal.addValue(1L).addValue(new NumberValue(new BigDecimal("1e400")));
+        Assert.assertFalse(decimal.isPacked());
+        Assert.assertEquals(2, decimal.size());
+    }
+
+    @Test
+    public void changesThroughTheList() {
+        PackedArrayValue array = new PackedArrayValue();
+        array.addValue(1L).addValue(2L);
+        array.getArray().add(new NumberValue(3L));
+        Assert.assertTrue(array.isPacked());
+
+        array.getArray().set(0, new StringValue("x"));
+        Assert.assertFalse(array.isPacked());
+        Assert.assertEquals(new ArrayValue().addValue("x").addValue(2L).addValue(3L), array);
+
+        array.getArray().remove(0);
+        Assert.assertEquals(2.0, array.getDouble(0), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void notANumber() {
+        PackedArrayValue array = new PackedArrayValue();
+        array.addValue("a");
+        array.getDouble(0);
+    }
+}
@@ -24,4 +24,35 @@ public class PrintVisitorTest {
         System.out.println(printed);
 
     }
+
+    @Test
+    public void escapesRoundTrip() {
+        ObjectValue object = new ObjectValue()
+                .addMember("quote\"key", "line\nbreak \\ tab\t \u0001 é");
+
+        String printed = object.accept(new PrintVisitor());
+
+        Lexer lexer = new Lexer(printed);
+        lexer.lexTokens();
+        Assert.assertTrue(lexer.getErrors().isEmpty());
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        parser.parse();
+
+        Assert.assertEquals(object, parser.getObject());
+    }
+
+    @Test
+    public void deepNesting() {
+        int depth = 10_000;
+        ArrayValue deepest = new ArrayValue();
+        Value value = deepest;
+        for (int i = 1; i < depth; i++) {
+            value = new ArrayValue().addValue(value);
+        }
+        ObjectValue object = new ObjectValue().addMember("deep", value);
+
+        String printed = object.accept(new PrintVisitor());
+        Assert.assertEquals(depth, printed.chars().filter(c -> c == '[').count());
+        Assert.assertTrue(printed.startsWith("{\n\t\"deep\": [\n\t\t[\n"));
+    }
 }
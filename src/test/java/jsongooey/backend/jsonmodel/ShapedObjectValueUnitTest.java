@@ -0,0 +1,113 @@
+package jsongooey.backend.jsonmodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static jsongooey.Util.parser;
+
+public class ShapedObjectValueUnitTest {
+
+    @Test
+    public void recordsShareTheirShape() {
+        ObjectValue object = parser("{\"records\": [{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}, {\"name\": \"c\", \"id\": 3}]}").getObject();
+        List<Value> records = ((ArrayValue) object.getMembers().get("records")).getArray();
+
+        ShapedObjectValue first = (ShapedObjectValue) records.get(0);
+        ShapedObjectValue second = (ShapedObjectValue) records.get(1);
+        ShapedObjectValue third = (ShapedObjectValue) records.get(2);
+        Assert.assertSame(first.getShape(), second.getShape());
+        Assert.assertNotSame(first.getShape(), third.getShape());
+        Assert.assertEquals(2, third.getShape().size());
+        Assert.assertEquals(new StringValue("b"), second.getMembers().get("name"));
+        Assert.assertEquals(List.of("name", "id"), List.copyOf(third.getMembers().keySet()));
+    }
+
+    @Test
+    public void wideObjectDoesNotGrowSmallRecords() {
+        StringBuilder json = new StringBuilder("{\"records\": [{\"id\": 0");
+        for (int i = 0; i < 60; i++) json.append(", \"k").append(i).append("\": ").append(i);
+        json.append("}");
+        for (int i = 1; i <= 3; i++) json.append(", {\"id\": ").append(i).append("}");
+        json.append(", {\"id\": 4, \"name\": \"x\"}]}");
+        List<Value> records = ((ArrayValue) parser(json.toString()).getObject().getMembers().get("records")).getArray();
+
+        Assert.assertTrue(((ShapedObjectValue) records.get(0)).capacity() >= 61);
+        for (Value record : records.subList(1, records.size())) {
+            Assert.assertTrue(((ShapedObjectValue) record).capacity() <= 4);
+        }
+    }
+
+    @Test
+    public void recordsFitTheirValues() {
+        ObjectValue object = parser("{\"records\": [{\"a\": 1, \"b\": 2, \"c\": 3}, {\"a\": 4, \"b\": 5, \"c\": 6}]}").getObject();
+        List<Value> records = ((ArrayValue) object.getMembers().get("records")).getArray();
+
+        Assert.assertEquals(3, ((ShapedObjectValue) records.get(1)).capacity());
+    }
+
+    @Test
+    public void equalToGenericObject() {
+        ObjectValue generic = new ObjectValue().addMember("a", 1L).addMember("b", "x").addMember("c", true);
+        ObjectValue shaped = new ShapedObjectValue(Shape.root()).addMember("a", 1L).addMember("b", "x").addMember("c", true);
+
+        Assert.assertEquals(generic, shaped);
+        Assert.assertEquals(shaped, generic);
+        Assert.assertEquals(generic.hashCode(), shaped.hashCode());
+        Assert.assertEquals(generic.toString(), shaped.toString());
+    }
+
+    @Test
+    public void putReplacesInPlace() {
+        ShapedObjectValue object = new ShapedObjectValue(Shape.root());
+        object.addMember("a", 1L).addMember("b", 2L).addMember("a", 3L);
+
+        Assert.assertEquals(2, object.getShape().size());
+        Assert.assertEquals(List.of("a", "b"), List.copyOf(object.getMembers().keySet()));
+        Assert.assertEquals(new NumberValue(3L), object.getMembers().get("a"));
+
+        for (Map.Entry<String, Value> entry : object.getMembers().entrySet()) {
+            entry.setValue(new StringValue(entry.getKey()));
+        }
+        Assert.assertEquals(new ObjectValue().addMember("a", "a").addMember("b", "b"), object);
+    }
+
+    @Test
+    public void removeMovesToMap() {
+        ShapedObjectValue object = new ShapedObjectValue(Shape.root());
+        object.addMember("a", 1L).addMember("b", 2L).addMember("c", 3L);
+
+        Assert.assertNull(object.getMembers().remove("x"));
+        Assert.assertNotNull(object.getShape());
+
+        Assert.assertEquals(new NumberValue(2L), object.getMembers().remove("b"));
+        Assert.assertNull(object.getShape());
+        Assert.assertEquals(new ObjectValue().addMember("a", 1L).addMember("c", 3L), object);
+
+        ShapedObjectValue iterated = new ShapedObjectValue(Shape.root());
+        iterated.addMember("a", 1L).addMember("b", 2L).addMember("c", 3L);
+        Iterator<Map.Entry<String, Value>> entries = iterated.getMembers().entrySet().iterator();
+        entries.next();
+        entries.next();
+        entries.remove();
+        Assert.assertEquals("c", entries.next().getKey());
+        Assert.assertFalse(entries.hasNext());
+        Assert.assertEquals(new ObjectValue().addMember("a", 1L).addMember("c", 3L), iterated);
+    }
+
+    @Test
+    public void manyKeysAreNotShaped() {
+        ShapedObjectValue object = new ShapedObjectValue(Shape.root());
+        ObjectValue generic = new ObjectValue();
+        for (int i = 0; i <= Shape.MAX_KEYS; i++) {
+            object.addMember("key" + i, i);
+            generic.addMember("key" + i, i);
+        }
+        Assert.assertNull(object.getShape());
+        Assert.assertEquals(generic, object);
+        Assert.assertEquals(List.copyOf(generic.getMembers().keySet()), List.copyOf(object.getMembers().keySet()));
+    }
+}
@@ -0,0 +1,82 @@
+package jsongooey.backend.jsonmodel;
+
+import jsongooey.backend.parser.EventParser;
+import jsongooey.backend.parser.TapeBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static jsongooey.Util.parser;
+import static jsongooey.Util.readResourceToString;
+
+public class TapeUnitTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+        for (String source : List.of(readResourceToString("/valid.json"), readResourceToString("/simple.json"))) {
+            ObjectValue object = parser(source).getObject();
+            Assert.assertEquals(object, Tape.of(object).toValue());
+        }
+    }
+
+    @Test
+    public void parsedLikeValue() throws IOException {
+        String source = readResourceToString("/valid.json");
+        TapeBuilder builder = new TapeBuilder();
+        EventParser parser = new EventParser(source, builder);
+        parser.parse();
+
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(parser(source).getObject(), builder.getTape().toValue());
+    }
+
+    @Test
+    public void navigation() {
+        Tape tape = Tape.of(parser("{\"a\": [1, 2.5, 1e400, {\"x\": []}], \"b\": \"text\", \"c\": true, \"d\": null, \"b\": \"last\"}").getObject());
+
+        Assert.assertEquals(Tape.Type.OBJECT, tape.type(0));
+        Assert.assertEquals(4, tape.size(0));
+        Assert.assertEquals(tape.length(), tape.next(0));
+
+        int a = tape.get(0, "a");
+        Assert.assertEquals(Tape.Type.ARRAY, tape.type(a));
+        Assert.assertEquals(4, tape.size(a));
+        Assert.assertEquals(1L, tape.getLong(tape.get(a, 0)));
+        Assert.assertEquals(2.5, tape.getDouble(tape.get(a, 1)), 0);
+        Assert.assertEquals(new BigDecimal("1e400"), tape.getNumber(tape.get(a, 2)));
+        Assert.assertEquals(-1, tape.get(a, 4));
+
+        int x = tape.get(tape.get(a, 3), "x");
+        Assert.assertEquals(0, tape.size(x));
+        Assert.assertFalse(tape.children(x).hasNext());
+
+        Assert.assertEquals("last", tape.getString(tape.get(0, "b")));
+        Assert.assertTrue(tape.getBoolean(tape.get(0, "c")));
+        Assert.assertEquals(Tape.Type.NULL, tape.type(tape.get(0, "d")));
+        Assert.assertEquals(-1, tape.get(0, "e"));
+    }
+
+    @Test
+    public void iteration() {
+        Tape tape = Tape.of(parser("{\"a\": {\"deep\": [[1], [2]]}, \"b\": 2, \"c\": [3]}").getObject());
+
+        List<String> keys = new ArrayList<>();
+        for (var children = tape.children(0); children.hasNext(); ) {
+            keys.add(tape.getKey(children.nextInt()));
+        }
+        Assert.assertEquals(List.of("a", "b", "c"), keys);
+
+        Assert.assertEquals(new ArrayValue().addValue(3L), tape.toValue(tape.get(0, "c")));
+    }
+
+    @Test
+    public void scalarDocument() {
+        Tape tape = Tape.of(new StringValue("only"));
+        Assert.assertEquals(1, tape.length());
+        Assert.assertEquals(new StringValue("only"), tape.toValue());
+    }
+}
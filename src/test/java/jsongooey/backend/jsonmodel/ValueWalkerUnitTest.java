@@ -0,0 +1,64 @@
+package jsongooey.backend.jsonmodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ValueWalkerUnitTest {
+
+    @Test
+    public void sameAsCollections() {
+        ArrayValue array = new ArrayValue().addValue(1).addValue("x").addValue(NullValue.NULL).addValue(new ObjectValue());
+        ObjectValue object = new ObjectValue().addMember("a", array).addMember("b", 2.5).addMember("c", true);
+
+        List<Value> elements = new ArrayList<>(array.getArray());
+        Map<String, Value> members = new LinkedHashMap<>(object.getMembers());
+        Assert.assertEquals(elements.hashCode(), array.hashCode());
+        Assert.assertEquals(members.hashCode(), object.hashCode());
+        Assert.assertEquals("[1, \"x\", null, {}]", array.toString());
+        Assert.assertEquals("{a: [1, \"x\", null, {}], b: 2.5, c: true }", object.toString());
+    }
+
+    @Test
+    public void membersInAnyOrder() {
+        ObjectValue first = new ObjectValue().addMember("a", 1).addMember("b", new ArrayValue().addValue(2));
+        ObjectValue second = new ObjectValue().addMember("b", new ArrayValue().addValue(2.0)).addMember("a", 1.0);
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertNotEquals(first, new ObjectValue().addMember("a", 1).addMember("c", new ArrayValue().addValue(2)));
+        Assert.assertNotEquals(new ArrayValue().addValue(1).addValue(2), new ArrayValue().addValue(2).addValue(1));
+        Assert.assertNotEquals(new ArrayValue().addValue(new ObjectValue()), new ArrayValue().addValue(new ArrayValue()));
+    }
+
+    @Test
+    public void deepNesting() {
+        int depth = 200_000;
+        Value first = deep(depth, 1);
+        Value second = deep(depth, 1);
+
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertEquals(first, second);
+        Assert.assertNotEquals(first, deep(depth, 2));
+
+        String printed = first.toString();
+        Assert.assertEquals(depth / 2, printed.chars().filter(c -> c == '[').count());
+        Assert.assertTrue(printed.startsWith("{a: [{a: ["));
+        Assert.assertTrue(printed.endsWith("}] }] }"));
+    }
+
+    /**
+     * objects and arrays nested in turn, the innermost array holds the leaf
+     */
+    private static Value deep(int depth, long leaf) {
+        Value value = new ArrayValue().addValue(leaf);
+        for (int i = 1; i < depth; i++) {
+            value = i % 2 == 1 ? new ObjectValue().addMember("a", value) : new ArrayValue().addValue(value);
+        }
+        return value;
+    }
+}
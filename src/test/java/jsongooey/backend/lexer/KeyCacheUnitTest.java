@@ -0,0 +1,35 @@
+package jsongooey.backend.lexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeyCacheUnitTest {
+
+    @Test
+    public void startsSmallAndGrowsToCapacity() {
+        KeyCache cache = new KeyCache(256);
+        Assert.assertEquals(16, cache.slots());
+
+        String source = "\"key0\"";
+        String first = cache.get(source, 1, source.length() - 1);
+        Assert.assertSame(first, cache.get(source, 1, source.length() - 1));
+        Assert.assertEquals(16, cache.slots());
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + i;
+            Assert.assertEquals(key, cache.get(key, 0, key.length()));
+        }
+        Assert.assertEquals(256, cache.slots());
+
+        // keys cached before growing are still found
+        String last = "key999";
+        Assert.assertSame(cache.get(last, 0, last.length()), cache.get(last, 0, last.length()));
+    }
+
+    @Test
+    public void escapedKeysAreDecoded() {
+        KeyCache cache = new KeyCache();
+        String source = "a\\nb";
+        Assert.assertEquals("a\nb", cache.get(source, 0, source.length()));
+    }
+}
@@ -103,6 +103,64 @@ public class LexerUnitTest {
         }
     }
 
+    @Test
+    public void tokenBuffer() {
+        String src = "{\n\"key\": [1.5, true, null]}";
+
+        var lexer = new Lexer(src);
+        lexer.lexTokens();
+        TokenBuffer buffer = lexer.getTokenBuffer();
+
+        Assert.assertEquals(12, buffer.size());
+        Assert.assertEquals(STRING, buffer.type(1));
+        Assert.assertEquals("\"key\"", buffer.lexeme(1));
+        Assert.assertEquals("key", buffer.literal(1));
+        Assert.assertEquals(2, buffer.line(1));
+        Assert.assertEquals(1.5, buffer.literal(4));
+        Assert.assertEquals(true, buffer.literal(6));
+
+        TokenBuffer copy = TokenBuffer.of(lexer.getTokens());
+        for (int i = 0; i < buffer.size(); i++) {
+            Assert.assertEquals(buffer.type(i), copy.type(i));
+            Assert.assertEquals(buffer.lexeme(i), copy.lexeme(i));
+            Assert.assertEquals(buffer.literal(i), copy.literal(i));
+            Assert.assertEquals(buffer.line(i), copy.line(i));
+        }
+    }
+
+    @Test
+    public void lazyLiteral() {
+        var lexer = new Lexer("[\"lazy\", 12.5]");
+        lexer.lexTokens();
+
+        Token string = lexer.getTokens().get(1);
+        Assert.assertEquals("lazy", string.getLiteral());
+        Assert.assertSame(string.getLiteral(), string.getLiteral());
+        Assert.assertEquals("\"lazy\"", string.getLexeme());
+
+        Token number = lexer.getTokens().get(3);
+        Assert.assertEquals(12.5, number.getLiteral());
+        Assert.assertSame(number.getLiteral(), number.getLiteral());
+    }
+
+    @Test
+    public void escapes() {
+        var lexer = new Lexer("[\"plain\", \"a\\\"b\\\\c\\/\\n\\t\", \"\\u00e9\\ud83d\\ude00\"]");
+        lexer.lexTokens();
+        Assert.assertTrue(lexer.getErrors().isEmpty());
+
+        var tokens = lexer.getTokens();
+        Assert.assertEquals("plain", tokens.get(1).getLiteral());
+        Assert.assertEquals("a\"b\\c/\n\t", tokens.get(3).getLiteral());
+        Assert.assertEquals("é😀", tokens.get(5).getLiteral());
+    }
+
+    @Test
+    public void invalidEscapes() {
+        assertHasError("[\"\\x\"]", new LexerError("invalid escape sequence", 1));
+        assertHasError("\n[\"\\u12g4\"]", new LexerError("invalid unicode escape sequence", 2));
+    }
+
     private void assertHasError(String src, LexerError expected) {
         Lexer lexer = new Lexer(src);
         lexer.lexTokens();
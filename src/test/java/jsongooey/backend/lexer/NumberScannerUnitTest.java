@@ -0,0 +1,61 @@
+package jsongooey.backend.lexer;
+
+import jsongooey.backend.jsonmodel.NumberValue;
+import jsongooey.backend.jsonmodel.PrintVisitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class NumberScannerUnitTest {
+
+    @Test
+    public void integers() {
+        Assert.assertEquals(0L, NumberScanner.scan("0"));
+        Assert.assertEquals(-42L, NumberScanner.scan("-42"));
+        Assert.assertEquals(1000000L, NumberScanner.scan("1000000"));
+        Assert.assertEquals(Long.MAX_VALUE, NumberScanner.scan("9223372036854775807"));
+        Assert.assertEquals(Long.MIN_VALUE, NumberScanner.scan("-9223372036854775808"));
+        Assert.assertEquals(new BigDecimal("9223372036854775808"), NumberScanner.scan("9223372036854775808"));
+    }
+
+    @Test
+    public void decimals() {
+        Assert.assertEquals(3.14159, NumberScanner.scan("3.14159"));
+        Assert.assertEquals(-0.05, NumberScanner.scan("-0.05"));
+        Assert.assertEquals(1.5, NumberScanner.scan("1.50000"));
+        Assert.assertEquals(1e5, NumberScanner.scan("1e5"));
+        Assert.assertEquals(2.5e-3, NumberScanner.scan("25E-4"));
+        Assert.assertEquals(1.5e300, NumberScanner.scan("1.5e300"));
+        Assert.assertEquals(1e-300, NumberScanner.scan("1e-300"));
+        Assert.assertEquals(-0.0, NumberScanner.scan("-0.0"));
+    }
+
+    @Test
+    public void bigDecimals() {
+        Assert.assertEquals(new BigDecimal("0.12345678901234567"), NumberScanner.scan("0.12345678901234567"));
+        Assert.assertEquals(new BigDecimal("1e400"), NumberScanner.scan("1e400"));
+        Assert.assertEquals(new BigDecimal("1e-400"), NumberScanner.scan("1e-400"));
+    }
+
+    @Test
+    public void sameAsParseDouble() {
+        String[] lexemes = {"0.1", "0.3", "123.456", "9007199254740.993", "1.23456789012345e10", "4.9e-324", "2.2250738585072014e-308"};
+        for (String lexeme : lexemes) {
+            Assert.assertEquals(lexeme, Double.parseDouble(lexeme), NumberScanner.scan(lexeme).doubleValue(), 0.0);
+        }
+    }
+
+    @Test
+    public void numberValueKeepsPrecision() {
+        var id = new NumberValue(NumberScanner.scan("1234567890123456789"));
+        Assert.assertEquals("1234567890123456789", id.accept(new PrintVisitor()));
+
+        var money = new NumberValue(NumberScanner.scan("19.99000000000000000001"));
+        Assert.assertEquals("19.99000000000000000001", money.accept(new PrintVisitor()));
+
+        Assert.assertEquals(new NumberValue(42), new NumberValue(42.0));
+        Assert.assertEquals(new NumberValue(42).hashCode(), new NumberValue(new BigDecimal("42.00")).hashCode());
+        Assert.assertNotEquals(new NumberValue(9007199254740993L), new NumberValue(9007199254740992.0));
+    }
+}
@@ -0,0 +1,81 @@
+package jsongooey.backend.lexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static jsongooey.Util.readResourceToString;
+import static jsongooey.backend.lexer.TokenType.EOF;
+
+public class StreamingLexerUnitTest {
+
+    @Test
+    public void sameTokensAsLexer() throws IOException {
+        String content = readResourceToString("/valid.json");
+
+        // a tiny buffer makes every literal cross a refill
+        var streaming = new StreamingLexer(new StringReader(content), 3);
+        assertSameAsLexer(content, drain(streaming));
+        Assert.assertTrue(streaming.getErrors().isEmpty());
+    }
+
+    @Test
+    public void fromChannel() throws IOException {
+        String content = readResourceToString("/simple.json");
+        var channel = Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        assertSameAsLexer(content, drain(new StreamingLexer(channel)));
+    }
+
+    @Test
+    public void sameErrorsAsLexer() {
+        String src = "tRue \n fal31 \n nual\n[\"six\",\n\n \"seven\", ?]\n62.23e\n\"awdol][[";
+
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+
+        var streaming = new StreamingLexer(new StringReader(src), 2);
+        drain(streaming);
+
+        Assert.assertEquals(lexer.getErrors(), streaming.getErrors());
+    }
+
+    @Test
+    public void eofRepeats() {
+        var streaming = new StreamingLexer(new StringReader(" {} "));
+        drain(streaming);
+
+        Assert.assertEquals(EOF, streaming.next());
+        Assert.assertEquals(EOF, streaming.next());
+    }
+
+    private List<Token> drain(TokenSource source) {
+        List<Token> tokens = new ArrayList<>();
+        do {
+            source.next();
+            tokens.add(source.getToken());
+        } while (source.getType() != EOF);
+        return tokens;
+    }
+
+    private void assertSameAsLexer(String src, List<Token> actual) {
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+        List<Token> expected = lexer.getTokens();
+
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            Assert.assertEquals(expected.get(i).getLexeme(), actual.get(i).getLexeme());
+            Assert.assertEquals(expected.get(i).getLiteral(), actual.get(i).getLiteral());
+            Assert.assertEquals(expected.get(i).getLine(), actual.get(i).getLine());
+        }
+    }
+}
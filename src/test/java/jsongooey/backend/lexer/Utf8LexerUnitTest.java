@@ -0,0 +1,71 @@
+package jsongooey.backend.lexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static jsongooey.Util.readResourceToString;
+import static jsongooey.backend.lexer.TokenType.*;
+
+public class Utf8LexerUnitTest {
+
+    @Test
+    public void mappedFileSameAsLexer() throws IOException {
+        String content = readResourceToString("/valid.json");
+        Path file = Files.createTempFile("utf8lexer", ".json");
+        try (Arena arena = Arena.ofConfined()) {
+            Files.writeString(file, content);
+
+            Lexer lexer = new Lexer(content);
+            lexer.lexTokens();
+
+            Utf8Lexer utf8Lexer = Utf8Lexer.map(file, arena);
+            for (Token expected : lexer.getTokens()) {
+                Assert.assertEquals(expected.getType(), utf8Lexer.next());
+                Assert.assertEquals(expected.getLine(), utf8Lexer.getLine());
+                Assert.assertEquals(expected.getLiteral(), utf8Lexer.getLiteral());
+            }
+            Assert.assertTrue(utf8Lexer.getErrors().isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void decodesMultibyteStrings() {
+        var lexer = new Utf8Lexer(utf8("{\"név\": \"árvíztűrő 🙂\"}"));
+
+        Assert.assertEquals(OPEN_BRACE, lexer.next());
+        Assert.assertEquals(STRING, lexer.next());
+        Assert.assertEquals("név", lexer.getLiteral());
+        Assert.assertEquals(COLON, lexer.next());
+        Assert.assertEquals(STRING, lexer.next());
+        Assert.assertEquals("árvíztűrő 🙂", lexer.getLiteral());
+        Assert.assertEquals(CLOSE_BRACE, lexer.next());
+        Assert.assertEquals(EOF, lexer.next());
+    }
+
+    @Test
+    public void sameErrorsAsLexer() {
+        String src = "tRue \n fal31 \n nual\n[\"six\",\n\n \"seven\", é]\n62.23e\n\"awdol][[";
+
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+
+        var utf8Lexer = new Utf8Lexer(utf8(src));
+        var types = utf8Lexer.lexTokenTypes();
+
+        Assert.assertEquals(lexer.getTokens().stream().map(Token::getType).toList(), types);
+        Assert.assertEquals(lexer.getErrors(), utf8Lexer.getErrors());
+    }
+
+    private ByteBuffer utf8(String src) {
+        return ByteBuffer.wrap(src.getBytes(StandardCharsets.UTF_8));
+    }
+}
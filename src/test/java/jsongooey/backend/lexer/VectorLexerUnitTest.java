@@ -0,0 +1,67 @@
+package jsongooey.backend.lexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static jsongooey.Util.readResourceToString;
+
+/**
+ * the vectorized lexer must produce exactly the tokens and errors of the scalar lexer.
+ * without the jdk.incubator.vector module both sides are scalar and these pass trivially
+ */
+public class VectorLexerUnitTest {
+
+    @Test
+    public void validFile() throws IOException {
+        assertSameAsScalar(readResourceToString("/valid.json"));
+        assertSameAsScalar(readResourceToString("/simple.json"));
+    }
+
+    @Test
+    public void escapesAcrossBlocks() {
+        // backslash runs and escaped quotes landing on every offset around the 64 character block boundary
+        for (int padding = 50; padding < 70; padding++) {
+            String pad = " ".repeat(padding);
+            assertSameAsScalar("{" + pad + "\"a\\\\\\\"b\": [\"\\\\\", \"\\\"\", \"x\\\\\\\\\"], \"c\": \"\\u0041\"}");
+        }
+    }
+
+    @Test
+    public void longStringsAndNewlines() {
+        String longString = "\"" + "{}[],: \\\"".repeat(40) + "\"";
+        assertSameAsScalar("{\n\"k\":\n" + longString + ",\n\"n\": -12.5e+3,\n\"t\": [true, false, null]\n}\n");
+        assertSameAsScalar("{\"multi\nline\": 1}");
+    }
+
+    @Test
+    public void fallsBackOnErrors() {
+        assertSameAsScalar("{\"a\": tru}");
+        assertSameAsScalar("{\"a\": 1.}");
+        assertSameAsScalar("{\"a\": \"\\x\"}");
+        assertSameAsScalar("{\"a\": \"unterminated}");
+        assertSameAsScalar("[01, truefalse, 1-2, ?]");
+    }
+
+    private void assertSameAsScalar(String src) {
+        Lexer scalar = new Lexer(src);
+        scalar.setVectorized(false);
+        scalar.lexTokens();
+
+        Lexer vectorized = new Lexer(src);
+        vectorized.setVectorized(true);
+        vectorized.lexTokens();
+
+        TokenBuffer expected = scalar.getTokenBuffer();
+        TokenBuffer actual = vectorized.getTokenBuffer();
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.type(i), actual.type(i));
+            Assert.assertEquals(expected.start(i), actual.start(i));
+            Assert.assertEquals(expected.length(i), actual.length(i));
+            Assert.assertEquals(expected.line(i), actual.line(i));
+        }
+        Assert.assertEquals(scalar.getErrors(), vectorized.getErrors());
+    }
+}
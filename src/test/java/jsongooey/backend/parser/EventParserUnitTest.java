@@ -0,0 +1,99 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.NullValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.lexer.Lexer;
+import jsongooey.backend.lexer.TokenType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static jsongooey.Util.readResourceToString;
+
+public class EventParserUnitTest {
+
+    /**
+     * records every event as a string
+     */
+    private static class RecordingHandler implements JsonHandler {
+        final List<String> events = new ArrayList<>();
+
+        @Override public void startObject() { events.add("{"); }
+        @Override public void endObject() { events.add("}"); }
+        @Override public void startArray() { events.add("["); }
+        @Override public void endArray() { events.add("]"); }
+        @Override public void key(String key) { events.add("key " + key); }
+        @Override public void stringValue(String value) { events.add("string " + value); }
+        @Override public void numberValue(Number value) { events.add("number " + value); }
+        @Override public void booleanValue(boolean value) { events.add("boolean " + value); }
+        @Override public void nullValue() { events.add("null"); }
+    }
+
+    @Test
+    public void events() {
+        RecordingHandler handler = new RecordingHandler();
+        EventParser parser = new EventParser("{\"a\": [1, 2.5, \"x\\ty\"], \"b\": {\"c\": null, \"d\": true}, \"e\": []}", handler);
+        parser.parse();
+
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(List.of(
+                "{", "key a", "[", "number 1", "number 2.5", "string x\ty", "]",
+                "key b", "{", "key c", "null", "key d", "boolean true", "}",
+                "key e", "[", "]", "}"), handler.events);
+    }
+
+    @Test
+    public void topLevelValues() {
+        RecordingHandler handler = new RecordingHandler();
+        new EventParser("[false, {}]", handler).parse();
+        Assert.assertEquals(List.of("[", "boolean false", "{", "}", "]"), handler.events);
+
+        handler = new RecordingHandler();
+        new EventParser("\"just a string\"", handler).parse();
+        Assert.assertEquals(List.of("string just a string"), handler.events);
+    }
+
+    @Test
+    public void countWithoutTree() throws IOException {
+        String content = readResourceToString("/valid.json");
+
+        int[] counts = new int[2];
+        new EventParser(content, new JsonHandler() {
+            @Override public void key(String key) { counts[0]++; }
+            @Override public void numberValue(Number value) { counts[1]++; }
+        }).parse();
+
+        Lexer lexer = new Lexer(content);
+        lexer.lexTokens();
+        long colons = lexer.getTokens().stream().filter(t -> t.getType() == TokenType.COLON).count();
+        long numbers = lexer.getTokens().stream().filter(t -> t.getType() == TokenType.NUMBER).count();
+
+        Assert.assertEquals(colons, counts[0]);
+        Assert.assertEquals(numbers, counts[1]);
+    }
+
+    @Test
+    public void valueBuilder() {
+        ValueBuilder builder = new ValueBuilder();
+        new EventParser("{\"a\": [1, \"two\", null], \"b\": {}}", builder).parse();
+
+        ObjectValue expected = new ObjectValue()
+                .addMember("a", new ArrayValue().addValue(1).addValue("two").addValue(new NullValue()))
+                .addMember("b", new ObjectValue());
+        Assert.assertEquals(expected, builder.getValue());
+    }
+
+    @Test
+    public void stopsAtFirstError() {
+        RecordingHandler handler = new RecordingHandler();
+        EventParser parser = new EventParser("{\"a\": [1 2], \"b\": 3}", handler);
+        parser.parse();
+
+        Assert.assertEquals(List.of(new SyntaxError("array unclosed", 1)), parser.getErrors());
+        Assert.assertEquals(List.of("{", "key a", "[", "number 1"), handler.events);
+    }
+}
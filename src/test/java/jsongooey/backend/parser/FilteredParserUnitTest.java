@@ -0,0 +1,96 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.NumberValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.StringValue;
+import jsongooey.backend.jsonmodel.Value;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class FilteredParserUnitTest {
+    private static final String SOURCE = """
+            {
+              "meta": {"version": "2.5", "generated": {"by": "x", "at": 1}},
+              "items": [
+                {"id": 1, "name": "a", "tags": ["t1", "t2"]},
+                {"name": "no id"},
+                {"id": 3, "name": "c/d", "nested": {"id": 99}}
+              ],
+              "a/b": {"~c": true}
+            }""";
+
+    @Test
+    public void pointerWildcard() {
+        FilteredParser parser = new FilteredParser(SOURCE, "/items/*/id");
+        parser.parse();
+
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(Map.of("/items/0/id", new NumberValue(1), "/items/2/id", new NumberValue(3)), parser.getMatches());
+        Assert.assertEquals(List.of("/items/0/id", "/items/2/id"), List.copyOf(parser.getMatches().keySet()));
+
+        ObjectValue expected = new ObjectValue().addMember("items", new ArrayValue()
+                .addValue(new ObjectValue().addMember("id", 1))
+                .addValue(new ObjectValue().addMember("id", 3)));
+        Assert.assertEquals(expected, parser.getObject());
+    }
+
+    @Test
+    public void jsonPath() {
+        FilteredParser parser = new FilteredParser(SOURCE, "$.meta.version", "$.items[0].tags", "$['a/b']['~c']");
+        parser.parse();
+
+        Map<String, Value> matches = parser.getMatches();
+        Assert.assertEquals(3, matches.size());
+        Assert.assertEquals(new StringValue("2.5"), matches.get("/meta/version"));
+        Assert.assertEquals(new ArrayValue().addValue("t1").addValue("t2"), matches.get("/items/0/tags"));
+        Assert.assertTrue(matches.containsKey("/a~1b/~0c"));
+    }
+
+    @Test
+    public void wholeSubtree() {
+        FilteredParser parser = new FilteredParser(SOURCE, "/meta", "/meta/version");
+        parser.parse();
+
+        Assert.assertEquals(List.of("/meta"), List.copyOf(parser.getMatches().keySet()));
+        Assert.assertEquals(2, ((ObjectValue) parser.getMatches().get("/meta")).getMembers().size());
+    }
+
+    @Test
+    public void noMatch() {
+        FilteredParser parser = new FilteredParser(SOURCE, "/items/5/id", "$.missing");
+        parser.parse();
+
+        Assert.assertTrue(parser.getMatches().isEmpty());
+        Assert.assertEquals(new ObjectValue(), parser.getObject());
+    }
+
+    @Test
+    public void errors() {
+        FilteredParser parser = new FilteredParser("{\"items\": [{\"id\": 1}\n{\"id\": 2}]}", "/items/*/id");
+        parser.parse();
+        Assert.assertEquals(List.of(new SyntaxError("array unclosed", 2)), parser.getErrors());
+        Assert.assertEquals(List.of("/items/0/id"), List.copyOf(parser.getMatches().keySet()));
+
+        parser = new FilteredParser("{\"a\": 1,\n\"id\": tru}", "/id");
+        parser.parse();
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(1, parser.getLexerErrors().size());
+    }
+
+    @Test
+    public void mismatchedBracketInSkippedValue() {
+        FilteredParser parser = new FilteredParser("{\"a\": [1}, \"b\": 2}", "/b");
+        parser.parse();
+        Assert.assertEquals(List.of(new SyntaxError("array unclosed", 1)), parser.getErrors());
+        Assert.assertTrue(parser.getMatches().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSelector() {
+        PathSelector.parse("$..id");
+    }
+}
@@ -0,0 +1,60 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.lexer.StreamingLexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static jsongooey.Util.parser;
+import static jsongooey.Util.readResourceToString;
+
+public class FusedParserUnitTest {
+
+    @Test
+    public void sameAsParser() throws IOException {
+        assertSameAsParser(readResourceToString("/valid.json"));
+        assertSameAsParser(readResourceToString("/simple.json"));
+    }
+
+    @Test
+    public void errorsSameAsParser() {
+        assertSameAsParser("{\"a\": [1, 2, ]}");
+        assertSameAsParser("{\"a\": 1,\n\"b\" 2}");
+        assertSameAsParser("{\"a\": [1, 2}");
+        assertSameAsParser("{\"a\": }");
+        assertSameAsParser("[1, 2]");
+    }
+
+    @Test
+    public void lexerErrorsAfterTopLevelObject() {
+        FusedParser parser = new FusedParser("{\"a\": 1}\n tru");
+        parser.parse();
+
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(1, parser.getLexerErrors().size());
+        Assert.assertEquals(2, parser.getLexerErrors().getFirst().line());
+    }
+
+    @Test
+    public void streamingSource() throws IOException {
+        String content = readResourceToString("/valid.json");
+
+        FusedParser fused = new FusedParser(new StreamingLexer(new StringReader(content), 16));
+        fused.parse();
+
+        Parser parser = parser(content);
+        Assert.assertEquals(parser.getObject(), fused.getObject());
+    }
+
+    private void assertSameAsParser(String src) {
+        Parser expected = parser(src);
+
+        FusedParser actual = new FusedParser(src);
+        actual.parse();
+
+        Assert.assertEquals(expected.getErrors(), actual.getErrors());
+        Assert.assertEquals(expected.getObject(), actual.getObject());
+    }
+}
@@ -0,0 +1,96 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.lexer.Lexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static jsongooey.Util.readResourceToString;
+
+public class IterativeParserUnitTest {
+
+    @Test
+    public void sameAsParser() throws IOException {
+        assertSameAsParser(readResourceToString("/valid.json"));
+        assertSameAsParser(readResourceToString("/simple.json"));
+        assertSameAsParser("{\"a\": [1, [], {}, [[]], ], \"b\": {\"c\": null}}");
+        assertSameAsParser("{}");
+    }
+
+    @Test
+    public void firstErrorSameAsParser() {
+        assertFirstErrorSameAsParser("{\"a\": [1, 2}");
+        assertFirstErrorSameAsParser("{\"a\": [1 2]}");
+        assertFirstErrorSameAsParser("{\"a\": [,]}");
+        assertFirstErrorSameAsParser("{\"a\": 1,\n\"b\" 2}");
+        assertFirstErrorSameAsParser("{\n\"a\":\n}");
+        assertFirstErrorSameAsParser("{\"a\": {\"b\": 1,}}");
+        assertFirstErrorSameAsParser("{\"a\": {1}}");
+    }
+
+    @Test
+    public void deepNesting() {
+        int depth = 100_000;
+        String source = "{\"deep\": " + "[".repeat(depth) + "]".repeat(depth) + "}";
+
+        IterativeParser parser = new IterativeParser(source);
+        parser.parse();
+        Assert.assertTrue(parser.getErrors().isEmpty());
+
+        Value value = parser.getObject().getMembers().get("deep");
+        int found = 0;
+        while (value instanceof ArrayValue array) {
+            found++;
+            value = array.getArray().isEmpty() ? null : array.getArray().getFirst();
+        }
+        Assert.assertEquals(depth, found);
+    }
+
+    @Test
+    public void maxDepth() {
+        IterativeParser parser = new IterativeParser("{\"a\": [[1]], \"b\": 2}");
+        parser.setMaxDepth(3);
+        parser.parse();
+        Assert.assertTrue(parser.getErrors().isEmpty());
+
+        parser = new IterativeParser("{\"a\": [[[1]]], \"b\": 2}");
+        parser.setMaxDepth(3);
+        parser.parse();
+        Assert.assertEquals(new SyntaxError("maximum nesting depth of 3 exceeded", 1), parser.getErrors().getFirst());
+    }
+
+    private Parser parser(String src) {
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        try {
+            parser.parse();
+        } catch (SyntaxErrorException _) {
+            // Parser does not catch errors of the top level object
+        }
+        return parser;
+    }
+
+    private void assertSameAsParser(String src) {
+        Parser expected = parser(src);
+
+        IterativeParser actual = new IterativeParser(src);
+        actual.parse();
+
+        Assert.assertTrue(actual.getErrors().isEmpty());
+        Assert.assertEquals(expected.getObject(), actual.getObject());
+    }
+
+    private void assertFirstErrorSameAsParser(String src) {
+        Parser expected = parser(src);
+
+        IterativeParser actual = new IterativeParser(src);
+        actual.parse();
+
+        Assert.assertEquals(expected.getErrors().getFirst(), actual.getErrors().getFirst());
+    }
+}
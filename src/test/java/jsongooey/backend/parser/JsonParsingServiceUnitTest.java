@@ -0,0 +1,90 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.Deduplicator;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static jsongooey.Util.parser;
+import static jsongooey.Util.readResourceToString;
+
+public class JsonParsingServiceUnitTest {
+
+    @Test
+    public void sameAsParser() throws IOException {
+        JsonParsingService service = new JsonParsingService(1);
+        for (String source : List.of(readResourceToString("/valid.json"), readResourceToString("/simple.json"), "{}", "[1]")) {
+            ParseResult result = service.parse(source);
+            Assert.assertFalse(result.hasErrors());
+            Assert.assertEquals(parser(source).getObject(), result.object());
+        }
+    }
+
+    @Test
+    public void deduplicatesAcrossResults() {
+        JsonParsingService service = new JsonParsingService(1);
+        Deduplicator deduplicator = new Deduplicator();
+        service.setDeduplicator(deduplicator);
+
+        ObjectValue first = service.parse("{\"defaults\": {\"a\": [1, 2]}}").object();
+        ObjectValue second = service.parse("{\"other\": 1, \"defaults\": {\"a\": [1, 2]}}").object();
+        Assert.assertTrue(first.isFrozen());
+        Assert.assertSame(first.getMembers().get("defaults"), second.getMembers().get("defaults"));
+        Assert.assertEquals(2, deduplicator.getSharedCount());
+    }
+
+    @Test
+    public void errorsDoNotLeakIntoNextParse() {
+        JsonParsingService service = new JsonParsingService(1);
+
+        ParseResult lexical = service.parse("{\"a\": tru}");
+        Assert.assertEquals(1, lexical.lexerErrors().size());
+
+        ParseResult syntax = service.parse("{\"a\": [1 2]}");
+        Assert.assertTrue(syntax.lexerErrors().isEmpty());
+        Assert.assertEquals(List.of(new SyntaxError("array unclosed", 1)), syntax.errors());
+
+        ParseResult topLevel = service.parse("{\"a\": 1,}");
+        Assert.assertEquals(List.of(new SyntaxError("object has trailing comma", 1)), topLevel.errors());
+
+        ParseResult valid = service.parse("{\"a\": 1}");
+        Assert.assertFalse(valid.hasErrors());
+        Assert.assertEquals(new ObjectValue().addMember("a", 1L), valid.object());
+        // results of earlier parses are left alone
+        Assert.assertEquals(1, syntax.errors().size());
+        Assert.assertEquals(1, lexical.lexerErrors().size());
+    }
+
+    @Test
+    public void keysAreShared() {
+        JsonParsingService service = new JsonParsingService(1);
+        ObjectValue first = service.parse("{\"name\": 1}").object();
+        ObjectValue second = service.parse("{\"name\": 2}").object();
+        Assert.assertSame(first.getMembers().keySet().iterator().next(), second.getMembers().keySet().iterator().next());
+    }
+
+    @Test
+    public void concurrentVirtualThreads() throws Exception {
+        JsonParsingService service = new JsonParsingService(4);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 200; i++) sources.add("{\"id\": " + i + ", \"items\": [" + "1, ".repeat(i) + "0]}");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ParseResult>> results = new ArrayList<>();
+            for (String source : sources) results.add(executor.submit(() -> service.parse(source)));
+
+            for (int i = 0; i < sources.size(); i++) {
+                ParseResult result = results.get(i).get();
+                Assert.assertFalse(result.hasErrors());
+                Assert.assertEquals(parser(sources.get(i)).getObject(), result.object());
+            }
+        }
+    }
+}
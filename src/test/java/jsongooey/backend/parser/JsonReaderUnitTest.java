@@ -0,0 +1,149 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.*;
+import jsongooey.backend.lexer.Lexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static jsongooey.Util.readResourceToString;
+
+public class JsonReaderUnitTest {
+
+    @Test
+    public void readFields() {
+        JsonReader reader = new JsonReader("""
+                {"items": [
+                    {"id": 1, "tags": ["a", {"b": [1, 2]}], "name": "first", "extra": {"x": null}},
+                    {"skip": [[[]]], "name": "second", "id": 2, "price": 9.5}
+                ], "count": 2}""");
+
+        List<String> names = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("items")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "id" -> ids.add(reader.nextLong());
+                        case "name" -> names.add(reader.nextString());
+                        default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+
+        Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+        Assert.assertEquals(List.of("first", "second"), names);
+        Assert.assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    public void sameAsParser() throws IOException {
+        String content = readResourceToString("/valid.json");
+
+        Lexer lexer = new Lexer(content);
+        lexer.lexTokens();
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        parser.parse();
+
+        Assert.assertEquals(parser.getObject(), read(new JsonReader(content)));
+    }
+
+    @Test
+    public void skipWholeDocument() throws IOException {
+        JsonReader reader = new JsonReader(readResourceToString("/valid.json"));
+        reader.skipValue();
+        Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void malformed() {
+        assertMalformed("{\"a\": [1 2]}", "array unclosed");
+        assertMalformed("{\"a\" 1}", "colon not found after key name");
+        assertMalformed("{\"a\": 1,\n}", "object has trailing comma");
+        assertMalformed("{\"a\": }", "value not found in object member");
+        assertMalformed("{\"a\": tru}", "invalid true keyword");
+        assertMalformed("{\"a\": [[1]", "array unclosed");
+    }
+
+    @Test
+    public void skipMismatched() {
+        assertSkipMalformed("{\"a\": [1}, \"b\": 2}", "array unclosed");
+        assertSkipMalformed("{\"a\": {\"b\": [1]]}", "object not terminated by closing brace");
+        assertSkipMalformed("{\"a\": [{\"b\": 1}", "array unclosed");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void wrongCall() {
+        JsonReader reader = new JsonReader("{\"a\": 1}");
+        reader.beginObject();
+        reader.nextString();
+    }
+
+    private void assertMalformed(String src, String message) {
+        try {
+            read(new JsonReader(src));
+            Assert.fail("no error for " + src);
+        } catch (MalformedJsonException e) {
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    private void assertSkipMalformed(String src, String message) {
+        JsonReader reader = new JsonReader(src);
+        reader.beginObject();
+        try {
+            reader.skipValue();
+            Assert.fail("no error for " + src);
+        } catch (MalformedJsonException e) {
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    /**
+     * reads the next value with the reader
+     */
+    private Value read(JsonReader reader) {
+        return switch (reader.peek()) {
+            case BEGIN_OBJECT -> {
+                ObjectValue object = new ObjectValue();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    object.addMember(name, read(reader));
+                }
+                reader.endObject();
+                yield object;
+            }
+            case BEGIN_ARRAY -> {
+                ArrayValue array = new ArrayValue();
+                reader.beginArray();
+                while (reader.hasNext()) array.addValue(read(reader));
+                reader.endArray();
+                yield array;
+            }
+            case STRING -> new StringValue(reader.nextString());
+            case NUMBER -> new NumberValue(reader.nextNumber());
+            case BOOLEAN -> new BooleanValue(reader.nextBoolean());
+            case NULL -> {
+                reader.nextNull();
+                yield new NullValue();
+            }
+            default -> throw new IllegalStateException("unexpected " + reader.peek());
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static jsongooey.Util.parser;
+import static jsongooey.Util.readResourceToString;
+
+public class LazyParserUnitTest {
+
+    @Test
+    public void sameAsParser() throws IOException {
+        assertSameAsParser(readResourceToString("/valid.json"));
+        assertSameAsParser(readResourceToString("/simple.json"));
+        assertSameAsParser("{\"a\": [1, [], {}, [[]], ], \"b\": {\"c\": null}, \"a\": true}");
+        assertSameAsParser("{}");
+    }
+
+    @Test
+    public void decodedOnAccess() {
+        LazyParser parser = new LazyParser("{\"a\": {\"b\": [1, {\"c\": 2}]}, \"d\": []}");
+        parser.parse();
+
+        LazyObjectValue root = (LazyObjectValue) parser.getObject();
+        Assert.assertFalse(root.isDecoded());
+
+        LazyObjectValue a = (LazyObjectValue) root.getMembers().get("a");
+        Assert.assertTrue(root.isDecoded());
+        Assert.assertFalse(a.isDecoded());
+        Assert.assertTrue(((LazyArrayValue) root.getMembers().get("d")).isEmpty());
+
+        LazyArrayValue b = (LazyArrayValue) a.getMembers().get("b");
+        Assert.assertFalse(b.isEmpty());
+        Assert.assertFalse(b.isDecoded());
+        Assert.assertEquals(new NumberValue(1L), b.getArray().getFirst());
+        Assert.assertFalse(((LazyObjectValue) b.getArray().get(1)).isDecoded());
+    }
+
+    @Test
+    public void visitors() {
+        LazyParser parser = new LazyParser("{\"a\": [1, \"x\", null, false], \"b\": {\"c\": {}}}");
+        parser.parse();
+        ObjectValue expected = parser("{\"a\": [1, \"x\", null, false], \"b\": {\"c\": {}}}").getObject();
+
+        Assert.assertEquals(expected.accept(new PrintVisitor()), parser.getObject().accept(new PrintVisitor()));
+        Assert.assertEquals(expected.hashCode(), parser.getObject().hashCode());
+    }
+
+    @Test
+    public void errorsFromIterativeParser() {
+        assertSameErrors("{\"a\": [1, 2}");
+        assertSameErrors("{\"a\": [,]}");
+        assertSameErrors("{\"a\": 1,\n\"b\" 2}");
+        assertSameErrors("{\"a\": {\"b\": 1,}}");
+        assertSameErrors("{\"a\": 1,}");
+        assertSameErrors("{\"a\": [1]");
+        assertSameErrors("{\"a\": tru}");
+    }
+
+    @Test
+    public void notAnObject() {
+        LazyParser parser = new LazyParser("[1, 2]");
+        parser.parse();
+        Assert.assertTrue(parser.getErrors().isEmpty());
+        Assert.assertEquals(new ObjectValue(), parser.getObject());
+    }
+
+    private void assertSameAsParser(String src) {
+        LazyParser actual = new LazyParser(src);
+        actual.parse();
+
+        Assert.assertTrue(actual.getErrors().isEmpty());
+        Assert.assertTrue(actual.getObject() instanceof LazyObjectValue);
+        Assert.assertEquals(parser(src).getObject(), actual.getObject());
+    }
+
+    private void assertSameErrors(String src) {
+        IterativeParser expected = new IterativeParser(src);
+        expected.parse();
+
+        LazyParser actual = new LazyParser(src);
+        actual.parse();
+
+        Assert.assertFalse(actual.getObject() instanceof LazyObjectValue);
+        Assert.assertEquals(expected.getLexerErrors(), actual.getLexerErrors());
+        Assert.assertEquals(expected.getErrors(), actual.getErrors());
+    }
+}
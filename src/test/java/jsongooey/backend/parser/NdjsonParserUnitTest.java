@@ -0,0 +1,97 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.jsonmodel.NumberValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class NdjsonParserUnitTest {
+
+    @Test
+    public void ordered() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 1000; i++) source.append("{\"id\": ").append(i).append(", \"s\": \"a\\\"\\n{\"}\n");
+
+        NdjsonParser parser = new NdjsonParser(source.toString());
+        parser.setCapacity(8);
+        int expected = 0;
+        while (parser.hasNext()) {
+            NdjsonRecord record = parser.next();
+            Assert.assertFalse(record.hasErrors());
+            Assert.assertEquals(expected + 1, record.number());
+            Assert.assertEquals(expected + 1, record.line());
+            Assert.assertEquals(new ObjectValue().addMember("id", expected).addMember("s", "a\"\n{"), record.value());
+            expected++;
+        }
+        Assert.assertEquals(1000, expected);
+    }
+
+    @Test
+    public void unordered() throws Exception {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 1000; i++) source.append(i).append('\n');
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (NdjsonParser parser = new NdjsonParser(new StringReader(source.toString()), pool)) {
+            parser.setOrdered(false);
+            Set<Long> numbers = new HashSet<>();
+            parser.forEachRemaining(record -> {
+                Assert.assertEquals(new NumberValue(record.number() - 1), record.value());
+                numbers.add(record.number());
+            });
+            Assert.assertEquals(1000, numbers.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void errorsPerRecord() {
+        NdjsonParser parser = new NdjsonParser("{\"a\": 1}\n\n  \n[1, 2\n{\"a\": tru}\n{} {}\n\"last\"");
+        List<NdjsonRecord> records = new ArrayList<>();
+        parser.forEachRemaining(records::add);
+
+        Assert.assertEquals(5, records.size());
+        Assert.assertFalse(records.get(0).hasErrors());
+
+        Assert.assertEquals(2, records.get(1).number());
+        Assert.assertEquals(4, records.get(1).line());
+        Assert.assertNull(records.get(1).value());
+        Assert.assertEquals(List.of(new SyntaxError("array unclosed", 4)), records.get(1).errors());
+
+        Assert.assertEquals(5, records.get(2).lexerErrors().getFirst().line());
+        Assert.assertEquals(List.of(new SyntaxError("unexpected token after value", 6)), records.get(3).errors());
+
+        Assert.assertEquals(5, records.get(4).number());
+        Assert.assertEquals(7, records.get(4).line());
+        Assert.assertFalse(records.get(4).hasErrors());
+    }
+
+    @Test
+    public void unterminatedStringStaysOnItsLine() {
+        NdjsonParser parser = new NdjsonParser("{\"a\": 1}\n{\"b\": \"oops}\r\n{\"c\": 3}\r\n[4]\n5\n\"six\"\n");
+        List<NdjsonRecord> records = new ArrayList<>();
+        parser.forEachRemaining(records::add);
+
+        Assert.assertEquals(6, records.size());
+        Assert.assertTrue(records.get(1).hasErrors());
+        Assert.assertEquals(2, records.get(1).lexerErrors().getFirst().line());
+        for (int i = 2; i < 6; i++) {
+            Assert.assertFalse(records.get(i).hasErrors());
+            Assert.assertEquals(i + 1, records.get(i).line());
+        }
+        Assert.assertEquals(new ObjectValue().addMember("c", 3L), records.get(2).value());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void settingsBeforeStart() {
+        NdjsonParser parser = new NdjsonParser("1\n2\n");
+        parser.next();
+        parser.setOrdered(false);
+    }
+}
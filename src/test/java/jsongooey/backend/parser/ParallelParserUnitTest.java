@@ -0,0 +1,58 @@
+package jsongooey.backend.parser;
+
+import jsongooey.backend.lexer.Lexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+import static jsongooey.Util.readResourceToString;
+
+public class ParallelParserUnitTest {
+
+    @Test
+    public void sameAsSequential() throws IOException {
+        String valid = readResourceToString("/valid.json");
+        String simple = readResourceToString("/simple.json");
+
+        String records = "{\"records\": [" + String.join(",\n", Collections.nCopies(50, valid)) + "],\n"
+                + "\"simple\": " + simple + ",\n"
+                + "\"escapes\": \"a \\\" quote, a \\\\ and {[,:]}\",\n"
+                + "\"empty\": [[], {}]}";
+
+        assertSameAsSequential(records);
+        assertSameAsSequential(valid);
+    }
+
+    @Test
+    public void errorsSameAsSequential() throws IOException {
+        String valid = readResourceToString("/valid.json");
+        String many = String.join(",\n", Collections.nCopies(20, valid));
+
+        assertSameAsSequential("{\"a\": [" + many + ", ]}");
+        assertSameAsSequential("{\"a\": [" + many + "], \"b\" 1}");
+        assertSameAsSequential("{\"a\": [" + many + "}");
+        assertSameAsSequential("{\"a\": [" + many + "}]");
+        assertSameAsSequential("{\"a\": {\"b\": " + many + "]}");
+        assertSameAsSequential("{\"a\": [" + many + ", tru]}");
+        assertSameAsSequential("[" + many + "]");
+    }
+
+    private void assertSameAsSequential(String src) {
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+        Parser expected = new Parser(lexer.getTokenBuffer());
+        if (lexer.getErrors().isEmpty()) expected.parse();
+
+        ParallelParser actual = new ParallelParser(src, new ForkJoinPool(4));
+        actual.setChunkSize(256);
+        actual.setTaskThreshold(64);
+        actual.parse();
+
+        Assert.assertEquals(lexer.getErrors(), actual.getLexerErrors());
+        Assert.assertEquals(expected.getErrors(), actual.getErrors());
+        Assert.assertEquals(expected.getObject(), actual.getObject());
+    }
+}
@@ -1,8 +1,11 @@
 package jsongooey.backend.parser;
 
 import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.BooleanValue;
 import jsongooey.backend.jsonmodel.NullValue;
 import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.StringValue;
+import jsongooey.backend.jsonmodel.Value;
 import jsongooey.backend.parser.Parser;
 import jsongooey.backend.lexer.Lexer;
 import org.junit.Assert;
@@ -12,6 +15,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static jsongooey.Util.readResourceToString;
 
@@ -79,4 +83,36 @@ public class ParserUnitTest {
         Assert.assertEquals(object1, object2);
     }
 
+    @Test
+    public void syntaxErrors() {
+        Assert.assertEquals(new SyntaxError("colon not found after key name", 2), firstError("{\"a\": 1,\n\"b\" 2}"));
+        Assert.assertEquals(new SyntaxError("array unclosed", 1), firstError("{\"a\": [1, 2}"));
+        Assert.assertEquals(new SyntaxError("value not found in object member", 3), firstError("{\n\"a\":\n}"));
+    }
+
+    @Test
+    public void interning() {
+        String src = "{\"a\": [{\"id\": \"short\", \"ok\": true, \"n\": null}, {\"id\": \"short\", \"ok\": true, \"n\": null}]}";
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        parser.setInternValues(true);
+        parser.parse();
+
+        List<Value> records = ((ArrayValue) parser.getObject().getMembers().get("a")).getArray();
+        ObjectValue first = (ObjectValue) records.get(0);
+        ObjectValue second = (ObjectValue) records.get(1);
+        Assert.assertSame(first.getMembers().keySet().iterator().next(), second.getMembers().keySet().iterator().next());
+        Assert.assertSame(((StringValue) first.getMembers().get("id")).getValue(), ((StringValue) second.getMembers().get("id")).getValue());
+        Assert.assertSame(BooleanValue.TRUE, first.getMembers().get("ok"));
+        Assert.assertSame(NullValue.NULL, second.getMembers().get("n"));
+    }
+
+    private SyntaxError firstError(String src) {
+        Lexer lexer = new Lexer(src);
+        lexer.lexTokens();
+        Parser parser = new Parser(lexer.getTokenBuffer());
+        parser.parse();
+        return parser.getErrors().getFirst();
+    }
 }
@@ -0,0 +1,140 @@
+package jsongooey.backend.stream;
+
+import jsongooey.backend.jsonmodel.ArrayValue;
+import jsongooey.backend.jsonmodel.ObjectValue;
+import jsongooey.backend.jsonmodel.Value;
+import jsongooey.backend.parser.MalformedJsonException;
+import jsongooey.backend.parser.NdjsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+public class ValuePublisherUnitTest {
+
+    /**
+     * records every signal, requests only when told to
+     */
+    private static class Recorder implements Flow.Subscriber<Value> {
+        final List<Value> values = new ArrayList<>();
+        final CompletableFuture<Throwable> done = new CompletableFuture<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public synchronized void onNext(Value item) {
+            values.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.complete(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        synchronized int received() {
+            return values.size();
+        }
+    }
+
+    @Test
+    public void honorsDemand() throws Exception {
+        ValuePublisher publisher = ValuePublisher.ofArray(new StringReader("[1, {\"a\": [2]}, \"x\", 4, 5]"), Runnable::run);
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        Assert.assertEquals(0, recorder.received());
+
+        recorder.subscription.request(2);
+        Assert.assertEquals(2, recorder.received());
+        Assert.assertEquals(new ObjectValue().addMember("a", new ArrayValue().addValue(2L)),
+                recorder.values.get(1));
+        Assert.assertFalse(recorder.done.isDone());
+
+        recorder.subscription.request(10);
+        Assert.assertEquals(5, recorder.received());
+        Assert.assertNull(recorder.done.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void malformedArray() throws Exception {
+        Recorder recorder = new Recorder();
+        ValuePublisher.ofArray(new StringReader("[1, 2 3]"), Runnable::run).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        Assert.assertEquals(2, recorder.received());
+        Assert.assertTrue(recorder.done.get(1, TimeUnit.SECONDS) instanceof MalformedJsonException);
+    }
+
+    @Test
+    public void ndjsonToFile() throws Exception {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 500; i++) source.append("{\"id\": ").append(i).append(", \"tags\": [\"a\", \"b\"]}\n");
+
+        Path file = Files.createTempFile("values", ".ndjson");
+        try {
+            ValueFileWriter writer = new ValueFileWriter(file);
+            ValuePublisher.ofNdjson(new NdjsonParser(source.toString())).subscribe(writer);
+            Assert.assertEquals(500L, (long) writer.getResult().get(10, TimeUnit.SECONDS));
+
+            List<String> lines = Files.readAllLines(file);
+            Assert.assertEquals(500, lines.size());
+            Assert.assertEquals("{\"id\":7,\"tags\":[\"a\",\"b\"]}", lines.get(7));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void arrayToFile() throws Exception {
+        Path file = Files.createTempFile("values", ".json");
+        try {
+            ValueFileWriter writer = new ValueFileWriter(file, true, 2);
+            ValuePublisher.ofArray(new StringReader("[1, 2, 3, [], {}]")).subscribe(writer);
+            Assert.assertEquals(5L, (long) writer.getResult().get(10, TimeUnit.SECONDS));
+            Assert.assertEquals("[1,2,3,[],{}]\n", Files.readString(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void ndjsonRecordError() {
+        ValueFileWriter writer = new ValueFileWriter(Path.of(System.getProperty("java.io.tmpdir"), "failing.ndjson"));
+        ValuePublisher.ofNdjson(new NdjsonParser("1\n[2,\n3\n")).subscribe(writer);
+        try {
+            writer.getResult().get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(new MalformedJsonException("array unclosed", 2).toString(), e.getCause().toString());
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        } finally {
+            Path.of(System.getProperty("java.io.tmpdir"), "failing.ndjson").toFile().delete();
+        }
+    }
+
+    @Test
+    public void singleSubscriber() throws Exception {
+        ValuePublisher publisher = ValuePublisher.ofArray(new StringReader("[1]"), Runnable::run);
+        publisher.subscribe(new Recorder());
+        Recorder second = new Recorder();
+        publisher.subscribe(second);
+        Assert.assertTrue(second.done.get(1, TimeUnit.SECONDS) instanceof IllegalStateException);
+    }
+}